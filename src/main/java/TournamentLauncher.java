@@ -0,0 +1,100 @@
+import java.awt.Color;
+import java.util.concurrent.ForkJoinPool;
+
+import carcassonne.model.BotCarcassonne;
+import carcassonne.model.GameCarcassonne;
+import carcassonne.model.MctsBotCarcassonne;
+import domino.model.BotDomino;
+import domino.model.ExpectimaxBotDomino;
+import domino.model.GameDomino;
+import shared.model.Tournament;
+import utils.TranspositionTable;
+
+/**
+ * Plays a tournament between the bots of a game and prints the statistics.
+ *
+ * <p>
+ * Usage: {@code TournamentLauncher [domino|carcassonne] [number of seeds]}
+ * </p>
+ */
+public class TournamentLauncher {
+    private static final int NB_DOMINO_TILES = 40;
+    private static final int EXPECTIMAX_DEPTH = 2; // Levels of a search
+    private static final int EXPECTIMAX_TABLE_SIZE = 1 << 14; // Entries of the table of each bot
+
+    public static void main(String[] args) {
+        String gameName = args.length > 0 ? args[0].toLowerCase() : "domino";
+        int nbSeeds = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        long[] seeds = new long[nbSeeds];
+        for (int i = 0; i < nbSeeds; i++) {
+            seeds[i] = i;
+        }
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.out.println("Tournament of " + gameName + " on " + pool.getParallelism() + " threads");
+
+        switch (gameName) {
+            case "domino":
+                playDomino(seeds, pool);
+                break;
+            case "carcassonne":
+                playCarcassonne(seeds, pool);
+                break;
+            default:
+                System.out.println("Unknown game: " + gameName);
+        }
+    }
+
+    private static void playDomino(long[] seeds, ForkJoinPool pool) {
+        Tournament<BotDomino, GameDomino> tournament = new Tournament<>(
+                (bots, seed) -> new GameDomino(bots.toArray(new BotDomino[0]), NB_DOMINO_TILES, seed), 2, seeds,
+                pool);
+
+        tournament.addEntrant("Greedy", BotDomino::new);
+
+        // The budget is a depth and each bot has its own table, so the result of a
+        // game does not depend on the load of the machine nor on the other games
+        tournament.addEntrant("Expectimax", () -> {
+            ExpectimaxBotDomino bot = new ExpectimaxBotDomino(new TranspositionTable(EXPECTIMAX_TABLE_SIZE));
+            bot.setDepthBudget(EXPECTIMAX_DEPTH);
+            bot.setTimeBudget(0);
+            // The chance nodes go through every tile left, a few samples being too
+            // noisy to gain on the greedy bot
+            bot.setNbSamples(NB_DOMINO_TILES);
+            return bot;
+        });
+
+        run(tournament);
+    }
+
+    private static void playCarcassonne(long[] seeds, ForkJoinPool pool) {
+        Tournament<BotCarcassonne, GameCarcassonne> tournament = new Tournament<>(
+                (bots, seed) -> new GameCarcassonne(bots.toArray(new BotCarcassonne[0]), seed), 2, seeds, pool);
+
+        // The colors are given by the game
+        tournament.addEntrant("Random", () -> new BotCarcassonne(Color.BLACK));
+        // The games already use every thread of the pool, so each search runs on
+        // the thread of its game
+        tournament.addEntrant("MCTS", () -> {
+            MctsBotCarcassonne bot = new MctsBotCarcassonne(Color.BLACK, null);
+            bot.setIterationBudget(50);
+            bot.setTimeBudget(0);
+            return bot;
+        });
+
+        run(tournament);
+    }
+
+    private static void run(Tournament<?, ?> tournament) {
+        tournament.run(System.out, 1000);
+
+        System.out.printf("%d games in %.1f games/s, %.1f turns per game (%d to %d), %.2f%% of passes%n",
+                tournament.getNbGames(), tournament.getGamesPerSecond(), tournament.getAverageTurns(),
+                tournament.getMinTurns(), tournament.getMaxTurns(), 100 * tournament.getPassRate());
+
+        for (Tournament.Entrant<?> entrant : tournament.getEntrants()) {
+            System.out.println(entrant);
+        }
+    }
+}
@@ -1,68 +1,98 @@
 package carcassonne.model;
 
 import java.awt.Color;
-import java.util.List;
+import java.util.random.RandomGenerator;
 
-import carcassonne.model.TileCarcassonne.SideSelector;
 import exceptions.NoPossibleMovementsException;
 import exceptions.TileNotFoundException;
 import exceptions.UnableToTurnException;
-import utils.Pair;
+import interfaces.PlayerStrategy;
+import shared.model.MoveList;
 
-public class BotCarcassonne extends PlayerCarcassonne {
+public class BotCarcassonne extends PlayerCarcassonne implements PlayerStrategy<GameCarcassonne> {
 
-    public BotCarcassonne(Color colorPawn) {
-        super(botNames[(int) (Math.random() * botNames.length)], colorPawn);
-    }
+    protected final MoveList moves = new MoveList(); // Buffer for the moves
 
-    public void changeName() {
-        name = botNames[(int) (Math.random() * botNames.length)];
+    /**
+     * Creates a bot, which is named by the game it joins, see
+     * {@link shared.model.Game#getRandomGenerator(shared.model.Player)}.
+     *
+     * @param colorPawn The color of the pawns of the bot
+     */
+    public BotCarcassonne(Color colorPawn) {
+        super(colorPawn);
     }
 
     public void play(GameCarcassonne model)
             throws TileNotFoundException, UnableToTurnException, NoPossibleMovementsException {
 
-        List<Pair<Integer, Integer>> possibleMoves = model.findPossiblePlacements();
-
-        if (possibleMoves.isEmpty())
+        if (model.generateMoves(moves) == 0)
             throw new NoPossibleMovementsException();
 
-        Pair<Integer, Integer> chosenPosition = possibleMoves.get((int) (Math.random() * possibleMoves.size()));
-
-        TileCarcassonne tileToPlace = model.getTileToPlace().copy();
-
-        placeTile(model, chosenPosition, tileToPlace);
-
-        placePawn(model);
-
+        playMove(model, chooseMove(model, moves));
     }
 
-    private void placeTile(GameCarcassonne model, Pair<Integer, Integer> chosenPosition, TileCarcassonne tileToPlace)
-            throws UnableToTurnException, TileNotFoundException {
-        int nbTurns = 0;
-
-        for (int i = 0; i < 4; i++) {
-            if (tileToPlace.canBePlaced(model.getNeighborsFromPosition(chosenPosition.first, chosenPosition.second))) {
-                break;
-            }
-            tileToPlace.turnRight(1);
-            nbTurns++;
-        }
+    /**
+     * Chooses a random move, see {@link #chooseRandomMove(MoveList, RandomGenerator)}.
+     */
+    @Override
+    public long chooseMove(GameCarcassonne model, MoveList moves) {
+        // The random decisions come from the stream of the bot in the session
+        RandomGenerator random = model.getRandomGenerator(this);
 
-        model.turn(true, nbTurns);
+        return moves.get(chooseRandomMove(moves, random));
+    }
 
-        model.place(chosenPosition.first, chosenPosition.second, this);
+    /**
+     * Plays {@code move} for the bot: the tile to place is turned, the pawn is
+     * put on it and the tile is placed. The round is not updated.
+     * 
+     * @param model The game
+     * @param move  The packed move, see {@link MoveList}
+     * @throws TileNotFoundException If there is no tile to place
+     * @throws UnableToTurnException If the tile cannot be turned
+     */
+    public void playMove(GameCarcassonne model, long move) throws TileNotFoundException, UnableToTurnException {
+        model.turn(true, MoveList.getRotation(move));
+
+        if (MoveList.getPawnSpot(move) != MoveList.NO_PAWN)
+            model.getTileToPlace().placePawn(MoveList.getPawnSpot(move));
+
+        model.place(MoveList.getX(move), MoveList.getY(move), this);
     }
 
-    private void placePawn(GameCarcassonne model) {
+    /**
+     * Returns the index of a random move of {@code moves}, filled by
+     * {@link GameCarcassonne#generateMoves(MoveList)}: a random placement of the
+     * tile, with a pawn on a random legal spot once in two times.
+     * 
+     * @param moves  The moves, at least one
+     * @param random The generator of the decisions
+     * @return The index of the move in {@code moves}
+     */
+    protected static int chooseRandomMove(MoveList moves, RandomGenerator random) {
+        int nbPlacements = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (MoveList.getPawnSpot(moves.get(i)) == MoveList.NO_PAWN)
+                nbPlacements++;
+        }
 
-        TileCarcassonne tile = model.getTileToPlace();
+        int k = random.nextInt(nbPlacements);
+        int chosen = 0;
+        while (MoveList.getPawnSpot(moves.get(chosen)) != MoveList.NO_PAWN || k-- > 0) {
+            chosen++;
+        }
 
-        if (remainingPawns == 0 || Math.random() < 0.5)
-            return;
+        // The moves with a pawn follow the move without a pawn of their placement
+        int nbPawnMoves = 0;
+        while (chosen + nbPawnMoves + 1 < moves.size()
+                && MoveList.getPawnSpot(moves.get(chosen + nbPawnMoves + 1)) != MoveList.NO_PAWN) {
+            nbPawnMoves++;
+        }
 
-        Pair<SideSelector, Integer> possiblePositions = tile.getRandomPlacingPosition();
+        if (nbPawnMoves > 0 && random.nextDouble() >= 0.5)
+            chosen += 1 + random.nextInt(nbPawnMoves);
 
-        tile.placePawn(possiblePositions.first, possiblePositions.second);
+        return chosen;
     }
 }
@@ -0,0 +1,195 @@
+package carcassonne.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import utils.Expandable2DArray;
+
+/**
+ * Keeps track of the abbeys of a game of Carcassonne while the tiles are
+ * placed.
+ *
+ * <p>
+ * Each abbey has a counter of the tiles around it. Placing a tile increments
+ * the counters of the abbeys of its 8 neighboring cells, so an abbey is
+ * complete when its counter reaches 8, whatever the number of abbeys on the
+ * board.
+ * </p>
+ *
+ * <p>
+ * The counters incremented and the abbeys added are recorded in a trail, so
+ * the tracker can go back to an earlier state with {@link #undo(int)}.
+ * </p>
+ */
+public final class CloisterTracker {
+
+    public static final int NB_NEIGHBORS = 8; // Number of cells around an abbey
+
+    // Offsets of the 8 cells around a cell
+    private static final int[] DX = { -1, -1, -1, 0, 0, 1, 1, 1 };
+    private static final int[] DY = { -1, 0, 1, -1, 1, -1, 0, 1 };
+
+    private final Map<Long, Integer> indexByCell = new HashMap<>(); // Index of the abbey of each cell
+    private final List<TileCarcassonne> abbeys = new ArrayList<>(); // Tiles of the abbeys
+    private int[] neighborCounts = new int[8]; // Number of tiles around each abbey
+
+    // Abbeys completed since the last call to pollCompleted
+    private int[] completed = new int[4];
+    private int nbCompleted = 0;
+
+    // Changes made since the creation of the tracker: the index of each counter
+    // incremented, or the position of an abbey added followed by ADDED_ABBEY
+    private static final int ADDED_ABBEY = -1;
+    private int[] trail = new int[16];
+    private int trailSize = 0;
+
+    // Getters
+
+    /**
+     * Returns the number of tiles around the abbey at ({@code x}, {@code y}).
+     *
+     * @param x X position of the abbey
+     * @param y Y position of the abbey
+     * @return The number of tiles around the abbey, -1 if there is no abbey
+     */
+    public int getNeighborCount(int x, int y) {
+        Integer index = indexByCell.get(Expandable2DArray.pack(x, y));
+        return index == null ? -1 : neighborCounts[index];
+    }
+
+    // Methods
+
+    /**
+     * Adds the tile {@code tile} placed at ({@code x}, {@code y}) on
+     * {@code board}: the abbeys around it have one more neighbor and, if the tile
+     * has an abbey, its tiles around are counted. The abbeys completed can be
+     * retrieved with {@link #pollCompleted(Consumer)}.
+     *
+     * @param tile  The placed tile
+     * @param x     X position of the tile
+     * @param y     Y position of the tile
+     * @param board The board, with the tile on it
+     */
+    public void place(TileCarcassonne tile, int x, int y, Expandable2DArray<TileCarcassonne> board) {
+        int count = 0;
+
+        for (int i = 0; i < NB_NEIGHBORS; i++) {
+            int nx = x + DX[i];
+            int ny = y + DY[i];
+
+            Integer index = indexByCell.get(Expandable2DArray.pack(nx, ny));
+            if (index != null) {
+                increment(index);
+                record(index);
+            }
+
+            if (tile.hasAbbey() && !board.isOutOfBounds(nx, ny) && board.get(nx, ny) != null)
+                count++;
+        }
+
+        if (tile.hasAbbey()) {
+            int index = abbeys.size();
+            abbeys.add(tile);
+            indexByCell.put(Expandable2DArray.pack(x, y), index);
+
+            if (index == neighborCounts.length)
+                neighborCounts = Arrays.copyOf(neighborCounts, index * 2);
+            neighborCounts[index] = count;
+
+            if (count == NB_NEIGHBORS)
+                addCompleted(index);
+
+            record(x);
+            record(y);
+            record(ADDED_ABBEY);
+        }
+    }
+
+    private void record(int change) {
+        if (trailSize == trail.length)
+            trail = Arrays.copyOf(trail, trailSize * 2);
+
+        trail[trailSize++] = change;
+    }
+
+    /**
+     * Returns a mark of the current state of the tracker, to go back to it with
+     * {@link #undo(int)}.
+     *
+     * @return The mark
+     */
+    public int mark() {
+        return trailSize;
+    }
+
+    /**
+     * Undoes, in the reverse order, every placement since {@code mark} was taken.
+     *
+     * @param mark A mark returned by {@link #mark()}
+     */
+    public void undo(int mark) {
+        if (mark < 0 || mark > trailSize)
+            throw new IllegalArgumentException("Invalid mark: " + mark);
+
+        while (trailSize > mark) {
+            int change = trail[--trailSize];
+            int index = change == ADDED_ABBEY ? abbeys.size() - 1 : change;
+
+            // The abbey has been completed by this change
+            if (neighborCounts[index] == NB_NEIGHBORS && nbCompleted > 0 && completed[nbCompleted - 1] == index)
+                nbCompleted--;
+
+            if (change == ADDED_ABBEY) {
+                int y = trail[--trailSize];
+                int x = trail[--trailSize];
+                abbeys.remove(index);
+                indexByCell.remove(Expandable2DArray.pack(x, y));
+            } else {
+                neighborCounts[index]--;
+            }
+        }
+    }
+
+    private void increment(int index) {
+        if (++neighborCounts[index] == NB_NEIGHBORS)
+            addCompleted(index);
+    }
+
+    private void addCompleted(int index) {
+        if (nbCompleted == completed.length)
+            completed = Arrays.copyOf(completed, nbCompleted * 2);
+
+        completed[nbCompleted++] = index;
+    }
+
+    /**
+     * Gives to {@code action} the tile of each abbey completed since the last call,
+     * then forgets them.
+     *
+     * @param action The action to apply to each completed abbey
+     */
+    public void pollCompleted(Consumer<TileCarcassonne> action) {
+        for (int i = 0; i < nbCompleted; i++) {
+            action.accept(abbeys.get(completed[i]));
+        }
+        nbCompleted = 0;
+    }
+
+    /**
+     * Gives to {@code action} the tile and the number of tiles around of each
+     * abbey which is not complete, for the scoring at the end of the game.
+     *
+     * @param action The action to apply to each abbey
+     */
+    public void forEachOpen(ObjIntConsumer<TileCarcassonne> action) {
+        for (int i = 0; i < abbeys.size(); i++) {
+            if (neighborCounts[i] < NB_NEIGHBORS)
+                action.accept(abbeys.get(i), neighborCounts[i]);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package carcassonne.model;
 
 import java.util.ArrayList;
+import java.util.random.RandomGenerator;
 
 import shared.model.Deck;
 
@@ -8,16 +9,38 @@ import shared.model.Deck;
  * A deck of the 72 tiles of Carcassonne.
  */
 public class DeckCarcassonne extends Deck<SideCarcassonne, TileCarcassonne> {
+    // Attributes
+    private final int[] remainingByType = new int[TileCarcassonnePrototype.NB_TYPES]; // Tiles left of each type
+
     // Constructor
 
     /**
-     * Creates a deck of 72 tiles.
+     * Creates a deck of 72 tiles shuffled with {@code random}.
      */
-    public DeckCarcassonne() {
+    public DeckCarcassonne(RandomGenerator random) {
+        super(random);
         tiles = new ArrayList<>(72);
         createDeck();
         shuffle();
     }
+
+    /**
+     * Creates a deck of the tiles left in {@code source}, shuffled with
+     * {@code random}: the types are the same, but not the order, which is hidden
+     * to the players.
+     * 
+     * @param source The deck to copy
+     * @param random The generator of the deck
+     */
+    public DeckCarcassonne(DeckCarcassonne source, RandomGenerator random) {
+        super(random);
+        tiles = new ArrayList<>(source.size());
+        for (int type = 0; type < TileCarcassonnePrototype.NB_TYPES; type++) {
+            addTile(type, source.remainingByType[type]);
+        }
+        shuffle();
+    }
+
     // Methods
 
     /**
@@ -78,5 +101,49 @@ public class DeckCarcassonne extends Deck<SideCarcassonne, TileCarcassonne> {
         for (int x = 0; x < j; x++) {
             tiles.add(new TileCarcassonne(i));
         }
+        remainingByType[i] += j;
+    }
+
+    @Override
+    public TileCarcassonne draw() {
+        TileCarcassonne tile = super.draw();
+        remainingByType[tile.getId()]--;
+        return tile;
+    }
+
+    @Override
+    public void undoDraw() {
+        super.undoDraw();
+        remainingByType[tileAt(next).getId()]++;
+    }
+
+    /**
+     * Returns the number of tiles of type {@code type} left in the deck.
+     * 
+     * @param type The type of the tiles
+     * @return The number of tiles of this type left in the deck
+     */
+    public int getNbRemaining(int type) {
+        return remainingByType[type];
+    }
+
+    /**
+     * Returns the number of tiles left in the deck which fit a cell of pattern
+     * {@code pattern} with at least one rotation, see {@link PlacementTable}.
+     * 
+     * @param pattern The pattern of the cell
+     * @return The number of tiles of the deck which fit the cell
+     */
+    public int countFitting(int pattern) {
+        int count = 0;
+        int types = PlacementTable.fittingTypes(pattern);
+
+        while (types != 0) {
+            int type = Integer.numberOfTrailingZeros(types);
+            count += remainingByType[type];
+            types &= types - 1;
+        }
+
+        return count;
     }
 }
@@ -0,0 +1,734 @@
+package carcassonne.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import carcassonne.model.SideCarcassonne.Type;
+import utils.Expandable2DArray;
+
+/**
+ * Keeps track of the cities, roads and meadows of a game of Carcassonne while
+ * the tiles are placed.
+ *
+ * <p>
+ * Each placed tile adds one node per segment it has, see {@link TileSegments},
+ * a segment being a set of sides (or half-sides for the meadows) of the tile
+ * which belong to the same feature. The nodes are the elements of a union-find:
+ * placing a tile merges its segments with the segments of its neighbors which
+ * face them. Each set knows how many of its sides are still open, how many
+ * tiles it has and how many pawns each player has on it, so a city or a road is
+ * complete as soon as its number of open sides reaches 0, and whether a feature
+ * is already owned is known without going through the board.
+ * </p>
+ *
+ * <p>
+ * Each change is recorded in a trail, so the tracker can go back to any earlier
+ * state with {@link #undo(int)}. The sets are merged by rank without path
+ * compression for this reason: a merge is undone by cutting the link between
+ * the two roots.
+ * </p>
+ */
+public final class FeatureTracker {
+
+    private static final int NO_NODE = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Operations of the trail, each one is recorded after its arguments
+    private static final int OP_TILE = 0; // x, y: a tile has been placed
+    private static final int OP_UNION = 1; // root, child, rank increased: two sets have been merged
+    private static final int OP_EDGES = 2; // root: two sides have been connected
+    private static final int OP_CLOSED = 3; // root: a feature has been completed
+    private static final int OP_PAWN = 4; // node: a pawn has been added
+    private static final int OP_REMOVED = 5; // node, player: a pawn has been removed
+
+    // Offsets of the neighbor in each direction (UP, RIGHT, DOWN, LEFT)
+    private static final int[] DX = { -1, 0, 1, 0 };
+    private static final int[] DY = { 0, 1, 0, -1 };
+
+    private final int nbPlayers;
+
+    private int nbNodes = 0;
+
+    // Union-find
+    private int[] parent = new int[INITIAL_CAPACITY];
+    private byte[] rank = new byte[INITIAL_CAPACITY];
+
+    // Data of the sets, only up to date for the roots
+    private byte[] type = new byte[INITIAL_CAPACITY]; // Ordinal of the type of the feature
+    private int[] openEdges = new int[INITIAL_CAPACITY]; // Number of sides not connected yet
+    private int[] tileCount = new int[INITIAL_CAPACITY]; // Number of segments of tiles in the set
+    private int[] pawnCounts; // pawnCounts[root * nbPlayers + p]: pawns of the player p
+    private int[] pawnTotals = new int[INITIAL_CAPACITY]; // Number of pawns on the set
+    private boolean[] closed = new boolean[INITIAL_CAPACITY]; // Whether the completion was reported
+
+    // The nodes of a set form a circular list, so that a set can be visited
+    // without going through the other nodes
+    private int[] nextMember = new int[INITIAL_CAPACITY];
+
+    // Data of the nodes
+    private int[] tileIndex = new int[INITIAL_CAPACITY]; // Index of the tile of the node in tiles
+    private int[] pawnOwner = new int[INITIAL_CAPACITY]; // Player who has a pawn on the node, -1 if none
+
+    private final List<TileCarcassonne> tiles = new ArrayList<>(); // Placed tiles, in the order they were placed
+
+    // The nodes of a tile are created in the order of its segments, from
+    // firstNodes[index of the tile]
+    private int[] firstNodes = new int[INITIAL_CAPACITY];
+
+    // Nodes of each placed tile: the node of each side in the order NESW (NO_NODE
+    // for a meadow), then the node of each port (NO_NODE for a city)
+    private final Map<Long, int[]> nodesByCell = new HashMap<>();
+
+    // Roots of the features completed since the last call to pollCompleted
+    private int[] completed = new int[8];
+    private int nbCompleted = 0;
+
+    // Used to count the tiles of a set once each
+    private int[] tileStamps = new int[INITIAL_CAPACITY];
+    private int stamp = 0;
+
+    // Changes made since the creation of the tracker, see undo
+    private int[] trail = new int[INITIAL_CAPACITY];
+    private int trailSize = 0;
+
+    // Constructor
+
+    /**
+     * Creates a tracker for a game of {@code nbPlayers} players.
+     *
+     * @param nbPlayers The number of players
+     */
+    public FeatureTracker(int nbPlayers) {
+        this.nbPlayers = nbPlayers;
+        pawnCounts = new int[INITIAL_CAPACITY * nbPlayers];
+    }
+
+    // Getters
+
+    /**
+     * Returns the node of the feature on the side {@code direction} of the tile at
+     * ({@code x}, {@code y}).
+     *
+     * @param x         X position of the tile
+     * @param y         Y position of the tile
+     * @param direction Direction of the side, between 0 and 3 (NESW)
+     * @return The node of the feature, -1 if there is no tile or if the side is
+     *         a meadow
+     */
+    public int nodeAt(int x, int y, int direction) {
+        int[] nodes = nodesByCell.get(Expandable2DArray.pack(x, y));
+        return nodes == null ? NO_NODE : nodes[direction];
+    }
+
+    /**
+     * Returns the node of the meadow on the port {@code port} of the tile at
+     * ({@code x}, {@code y}), see {@link TileSegments}.
+     *
+     * @param x    X position of the tile
+     * @param y    Y position of the tile
+     * @param port The port, between 0 and 7
+     * @return The node of the meadow, -1 if there is no tile or if the port is on
+     *         a city
+     */
+    public int portNodeAt(int x, int y, int port) {
+        int[] nodes = nodesByCell.get(Expandable2DArray.pack(x, y));
+        return nodes == null ? NO_NODE : nodes[4 + port];
+    }
+
+    public Type getType(int node) {
+        return Type.values()[type[find(node)]];
+    }
+
+    public int getOpenEdges(int node) {
+        return openEdges[find(node)];
+    }
+
+    /**
+     * Returns the number of tiles of the feature of {@code node}. It is kept up to
+     * date at each placement, a tile being counted once per segment it has in the
+     * feature.
+     *
+     * @param node A node of the feature
+     * @return The number of tiles of the feature
+     */
+    public int getTileCount(int node) {
+        return tileCount[find(node)];
+    }
+
+    public boolean isComplete(int node) {
+        return openEdges[find(node)] == 0;
+    }
+
+    /**
+     * Returns the number of pawns of the player {@code player} on the feature of
+     * {@code node}.
+     *
+     * @param node   A node of the feature
+     * @param player The index of the player
+     * @return The number of pawns of the player
+     */
+    public int getPawnCount(int node, int player) {
+        return pawnCounts[find(node) * nbPlayers + player];
+    }
+
+    /**
+     * Returns {@code true} if there is at least one pawn on the feature of
+     * {@code node}.
+     *
+     * @param node A node of the feature
+     * @return {@code true} if the feature has a pawn
+     */
+    public boolean hasPawn(int node) {
+        return pawnTotals[find(node)] > 0;
+    }
+
+    /**
+     * Returns the mask of the players who have the most pawns on the feature of
+     * {@code node}, the bit {@code p} standing for the player {@code p}. The mask
+     * is 0 if there is no pawn on the feature.
+     *
+     * @param node A node of the feature
+     * @return The mask of the owners of the feature
+     */
+    public int getOwners(int node) {
+        int root = find(node);
+        int max = 0;
+        int owners = 0;
+
+        for (int p = 0; p < nbPlayers; p++) {
+            int count = pawnCounts[root * nbPlayers + p];
+            if (count > max) {
+                max = count;
+                owners = 1 << p;
+            } else if (count == max && count > 0) {
+                owners |= 1 << p;
+            }
+        }
+
+        return owners;
+    }
+
+    // Methods
+
+    /**
+     * Returns the root of the set of {@code node}.
+     *
+     * @param node The node
+     * @return The root of its set
+     */
+    public int find(int node) {
+        while (parent[node] != node) {
+            node = parent[node];
+        }
+
+        return node;
+    }
+
+    private int union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+
+        if (rootA == rootB)
+            return rootA;
+
+        if (rank[rootA] < rank[rootB]) {
+            int temp = rootA;
+            rootA = rootB;
+            rootB = temp;
+        }
+
+        parent[rootB] = rootA;
+        boolean isRankIncreased = rank[rootA] == rank[rootB];
+        if (isRankIncreased)
+            rank[rootA]++;
+
+        openEdges[rootA] += openEdges[rootB];
+        tileCount[rootA] += tileCount[rootB];
+        pawnTotals[rootA] += pawnTotals[rootB];
+        for (int p = 0; p < nbPlayers; p++) {
+            pawnCounts[rootA * nbPlayers + p] += pawnCounts[rootB * nbPlayers + p];
+        }
+
+        splice(rootA, rootB);
+
+        record(rootA, rootB, isRankIncreased ? 1 : 0, OP_UNION);
+        return rootA;
+    }
+
+    /**
+     * Splices the circular lists of {@code a} and {@code b}: two lists are merged
+     * and a list is split back if it is spliced again at the same nodes.
+     */
+    private void splice(int a, int b) {
+        int temp = nextMember[a];
+        nextMember[a] = nextMember[b];
+        nextMember[b] = temp;
+    }
+
+    /**
+     * Adds the tile {@code tile} placed at ({@code x}, {@code y}) and merges its
+     * cities and roads with the ones of its neighbors. The features completed by
+     * the tile can be retrieved with {@link #pollCompleted(IntConsumer)}.
+     *
+     * @param tile The placed tile
+     * @param x    X position of the tile
+     * @param y    Y position of the tile
+     */
+    public void place(TileCarcassonne tile, int x, int y) {
+        int index = tiles.size();
+        tiles.add(tile);
+        record(x, y, OP_TILE);
+
+        if (index == firstNodes.length)
+            firstNodes = Arrays.copyOf(firstNodes, index * 2);
+        firstNodes[index] = nbNodes;
+
+        int[] nodes = new int[4 + TileSegments.NB_PORTS];
+        Arrays.fill(nodes, NO_NODE);
+
+        for (int segment : TileSegments.getSegments(tile.getId(), tile.getNbOfRotations())) {
+            Type segmentType = TileSegments.getType(segment);
+            int mask = TileSegments.getMask(segment);
+            int node = newNode(segmentType.ordinal(), Integer.bitCount(mask), index);
+
+            if (segmentType == Type.MEADOW) {
+                for (int p = 0; p < TileSegments.NB_PORTS; p++) {
+                    if ((mask & (1 << p)) != 0)
+                        nodes[4 + p] = node;
+                }
+            } else {
+                for (int d = 0; d < 4; d++) {
+                    if ((mask & (1 << d)) != 0)
+                        nodes[d] = node;
+                }
+            }
+        }
+
+        nodesByCell.put(Expandable2DArray.pack(x, y), nodes);
+
+        // Connects the sides with the sides of the neighbors facing them
+        for (int d = 0; d < 4; d++) {
+            if (nodes[d] == NO_NODE)
+                continue;
+
+            int neighbor = nodeAt(x + DX[d], y + DY[d], (d + 2) % 4);
+            if (neighbor == NO_NODE)
+                continue;
+
+            int root = union(nodes[d], neighbor);
+            openEdges[root] -= 2;
+            record(root, OP_EDGES);
+        }
+
+        // Connects the meadows with the meadows of the neighbors touching them
+        for (int p = 0; p < TileSegments.NB_PORTS; p++) {
+            if (nodes[4 + p] == NO_NODE)
+                continue;
+
+            int d = p / 2;
+            int neighbor = portNodeAt(x + DX[d], y + DY[d], TileSegments.oppositePort(p));
+            if (neighbor == NO_NODE)
+                continue;
+
+            int root = union(nodes[4 + p], neighbor);
+            openEdges[root] -= 2;
+            record(root, OP_EDGES);
+        }
+
+        // The cities and roads of the tile which are now closed
+        for (int d = 0; d < 4; d++) {
+            if (nodes[d] == NO_NODE)
+                continue;
+
+            int root = find(nodes[d]);
+            if (openEdges[root] == 0 && !closed[root]) {
+                closed[root] = true;
+                addCompleted(root);
+                record(root, OP_CLOSED);
+            }
+        }
+    }
+
+    private int newNode(int typeOrdinal, int nbSides, int index) {
+        if (nbNodes == parent.length)
+            grow();
+
+        int node = nbNodes++;
+        parent[node] = node;
+        rank[node] = 0;
+        type[node] = (byte) typeOrdinal;
+        openEdges[node] = nbSides;
+        tileCount[node] = 1;
+        pawnTotals[node] = 0;
+        Arrays.fill(pawnCounts, node * nbPlayers, (node + 1) * nbPlayers, 0);
+        closed[node] = false;
+        nextMember[node] = node;
+        tileIndex[node] = index;
+        pawnOwner[node] = -1;
+
+        return node;
+    }
+
+    private void grow() {
+        int capacity = parent.length * 2;
+
+        parent = Arrays.copyOf(parent, capacity);
+        rank = Arrays.copyOf(rank, capacity);
+        type = Arrays.copyOf(type, capacity);
+        openEdges = Arrays.copyOf(openEdges, capacity);
+        tileCount = Arrays.copyOf(tileCount, capacity);
+        pawnCounts = Arrays.copyOf(pawnCounts, capacity * nbPlayers);
+        pawnTotals = Arrays.copyOf(pawnTotals, capacity);
+        closed = Arrays.copyOf(closed, capacity);
+        nextMember = Arrays.copyOf(nextMember, capacity);
+        tileIndex = Arrays.copyOf(tileIndex, capacity);
+        pawnOwner = Arrays.copyOf(pawnOwner, capacity);
+    }
+
+    private void addCompleted(int root) {
+        if (nbCompleted == completed.length)
+            completed = Arrays.copyOf(completed, nbCompleted * 2);
+
+        completed[nbCompleted++] = root;
+    }
+
+    /**
+     * Gives to {@code action} the root of each feature completed since the last
+     * call, then forgets them.
+     *
+     * @param action The action to apply to each completed feature
+     */
+    public void pollCompleted(IntConsumer action) {
+        for (int i = 0; i < nbCompleted; i++) {
+            action.accept(find(completed[i]));
+        }
+        nbCompleted = 0;
+    }
+
+    /**
+     * Returns the mask of the segments of {@code tile} which are, or would be if
+     * the tile were placed at ({@code x}, {@code y}), connected to a feature which
+     * already has a pawn. The bit {@code i} stands for the segment {@code i} of
+     * {@link TileSegments#getSegments(int, int)}. Only the neighbors of the cell
+     * are looked at, so the tile does not have to be placed.
+     *
+     * @param tile The tile
+     * @param x    X position of the tile
+     * @param y    Y position of the tile
+     * @return The mask of the owned segments
+     */
+    public int getOwnedSegments(TileCarcassonne tile, int x, int y) {
+        return getOwnedSegments(tile.getId(), tile.getNbOfRotations(), x, y);
+    }
+
+    /**
+     * Returns the mask of the segments of the type {@code type} turned
+     * {@code rotation} times to the right, placed at ({@code x}, {@code y}), which
+     * would be merged with a feature which has a pawn.
+     *
+     * @param type     The type of the tile
+     * @param rotation The number of rotations to the right, between 0 and 3
+     * @param x        X position of the tile
+     * @param y        Y position of the tile
+     * @return The mask of the owned segments
+     */
+    public int getOwnedSegments(int type, int rotation, int x, int y) {
+        int owned = 0;
+
+        for (int d = 0; d < 4; d++) {
+            int segment = TileSegments.segmentOfSide(type, rotation, d);
+            if (segment < 0)
+                continue;
+
+            int neighbor = nodeAt(x + DX[d], y + DY[d], (d + 2) % 4);
+            if (neighbor != NO_NODE && pawnTotals[find(neighbor)] > 0)
+                owned |= 1 << segment;
+        }
+
+        for (int p = 0; p < TileSegments.NB_PORTS; p++) {
+            int segment = TileSegments.segmentOfPort(type, rotation, p);
+            if (segment < 0)
+                continue;
+
+            int d = p / 2;
+            int neighbor = portNodeAt(x + DX[d], y + DY[d], TileSegments.oppositePort(p));
+            if (neighbor != NO_NODE && pawnTotals[find(neighbor)] > 0)
+                owned |= 1 << segment;
+        }
+
+        return owned;
+    }
+
+    /**
+     * Puts a pawn of the player {@code player} on the node {@code node}.
+     *
+     * @param node   The node
+     * @param player The index of the player
+     */
+    public void addPawn(int node, int player) {
+        if (pawnOwner[node] != -1)
+            throw new IllegalStateException("There is already a pawn on this segment");
+
+        pawnOwner[node] = player;
+
+        int root = find(node);
+        pawnCounts[root * nbPlayers + player]++;
+        pawnTotals[root]++;
+        record(node, OP_PAWN);
+    }
+
+    /**
+     * Removes the pawns of the feature of {@code node} and gives the tile of each
+     * of them to {@code action}.
+     *
+     * @param node   A node of the feature
+     * @param action The action to apply to the tile of each pawn
+     */
+    public void removePawns(int node, Consumer<TileCarcassonne> action) {
+        int root = find(node);
+        int member = root;
+
+        do {
+            if (pawnOwner[member] != -1) {
+                record(member, pawnOwner[member], OP_REMOVED);
+                pawnOwner[member] = -1;
+                action.accept(tiles.get(tileIndex[member]));
+            }
+            member = nextMember[member];
+        } while (member != root);
+
+        Arrays.fill(pawnCounts, root * nbPlayers, (root + 1) * nbPlayers, 0);
+        pawnTotals[root] = 0;
+    }
+
+    /**
+     * Returns the number of distinct tiles of the feature of {@code node}. Unlike
+     * {@link #getTileCount(int)}, a tile which has two separate segments in the
+     * feature is counted once, but the nodes of the feature are visited.
+     *
+     * @param node A node of the feature
+     * @return The number of tiles of the feature
+     */
+    public int countDistinctTiles(int node) {
+        if (tileStamps.length < tiles.size())
+            tileStamps = Arrays.copyOf(tileStamps, Math.max(tiles.size(), tileStamps.length * 2));
+
+        stamp++;
+        int root = find(node);
+        int member = root;
+        int count = 0;
+
+        do {
+            if (tileStamps[tileIndex[member]] != stamp) {
+                tileStamps[tileIndex[member]] = stamp;
+                count++;
+            }
+            member = nextMember[member];
+        } while (member != root);
+
+        return count;
+    }
+
+    /**
+     * Returns a mark of the current state of the tracker, to go back to it with
+     * {@link #undo(int)}.
+     *
+     * @return The mark
+     */
+    public int mark() {
+        return trailSize;
+    }
+
+    /**
+     * Undoes, in the reverse order, every change made since {@code mark} was
+     * taken: the tiles placed, the merges, the completions and the pawns added or
+     * removed.
+     *
+     * @param mark A mark returned by {@link #mark()}
+     */
+    public void undo(int mark) {
+        if (mark < 0 || mark > trailSize)
+            throw new IllegalArgumentException("Invalid mark: " + mark);
+
+        while (trailSize > mark) {
+            int op = trail[--trailSize];
+
+            switch (op) {
+                case OP_TILE: {
+                    int y = trail[--trailSize];
+                    int x = trail[--trailSize];
+                    int index = tiles.size() - 1;
+                    tiles.remove(index);
+                    nodesByCell.remove(Expandable2DArray.pack(x, y));
+                    nbNodes = firstNodes[index];
+                    break;
+                }
+                case OP_UNION: {
+                    boolean isRankIncreased = trail[--trailSize] != 0;
+                    int child = trail[--trailSize];
+                    int root = trail[--trailSize];
+                    undoUnion(root, child, isRankIncreased);
+                    break;
+                }
+                case OP_EDGES:
+                    openEdges[trail[--trailSize]] += 2;
+                    break;
+                case OP_CLOSED: {
+                    int root = trail[--trailSize];
+                    closed[root] = false;
+                    if (nbCompleted > 0 && completed[nbCompleted - 1] == root)
+                        nbCompleted--;
+                    break;
+                }
+                case OP_PAWN: {
+                    int node = trail[--trailSize];
+                    int root = find(node);
+                    pawnCounts[root * nbPlayers + pawnOwner[node]]--;
+                    pawnTotals[root]--;
+                    pawnOwner[node] = -1;
+                    break;
+                }
+                case OP_REMOVED: {
+                    int player = trail[--trailSize];
+                    int node = trail[--trailSize];
+                    int root = find(node);
+                    pawnOwner[node] = player;
+                    pawnCounts[root * nbPlayers + player]++;
+                    pawnTotals[root]++;
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Unknown operation in the trail: " + op);
+            }
+        }
+    }
+
+    /**
+     * Separates the set of {@code child} from the set of {@code root}, the data of
+     * the child being the same as when they were merged.
+     */
+    private void undoUnion(int root, int child, boolean isRankIncreased) {
+        parent[child] = child;
+        if (isRankIncreased)
+            rank[root]--;
+
+        openEdges[root] -= openEdges[child];
+        tileCount[root] -= tileCount[child];
+        pawnTotals[root] -= pawnTotals[child];
+        for (int p = 0; p < nbPlayers; p++) {
+            pawnCounts[root * nbPlayers + p] -= pawnCounts[child * nbPlayers + p];
+        }
+
+        splice(root, child);
+    }
+
+    private void record(int a, int op) {
+        ensureTrailCapacity(2);
+        trail[trailSize++] = a;
+        trail[trailSize++] = op;
+    }
+
+    private void record(int a, int b, int op) {
+        ensureTrailCapacity(3);
+        trail[trailSize++] = a;
+        trail[trailSize++] = b;
+        trail[trailSize++] = op;
+    }
+
+    private void record(int a, int b, int c, int op) {
+        ensureTrailCapacity(4);
+        trail[trailSize++] = a;
+        trail[trailSize++] = b;
+        trail[trailSize++] = c;
+        trail[trailSize++] = op;
+    }
+
+    private void ensureTrailCapacity(int n) {
+        if (trailSize + n > trail.length)
+            trail = Arrays.copyOf(trail, Math.max(trail.length * 2, trailSize + n));
+    }
+
+    /**
+     * Gives to {@code action} the root of each meadow which has at least one pawn
+     * and the number of complete cities it touches, for the scoring at the end of
+     * the game. The meadows and the cities are already merged, so the placed tiles
+     * are only gone through once, whatever the size of the board.
+     *
+     * @param action The action to apply to each meadow
+     */
+    public void forEachFarm(FarmConsumer action) {
+        // Pairs (meadow, city) of roots, a city being counted once per meadow
+        long[] pairs = new long[16];
+        int nbPairs = 0;
+
+        for (int i = 0; i < tiles.size(); i++) {
+            TileCarcassonne tile = tiles.get(i);
+            int[] segments = TileSegments.getSegments(tile.getId(), tile.getNbOfRotations());
+
+            for (int s = 0; s < segments.length; s++) {
+                int cities = TileSegments.getAdjacentCities(tile.getId(), tile.getNbOfRotations(), s);
+                if (cities == 0)
+                    continue;
+
+                int meadow = find(firstNodes[i] + s);
+                if (pawnTotals[meadow] == 0)
+                    continue;
+
+                for (; cities != 0; cities &= cities - 1) {
+                    int city = find(firstNodes[i] + Integer.numberOfTrailingZeros(cities));
+                    if (openEdges[city] > 0)
+                        continue;
+
+                    if (nbPairs == pairs.length)
+                        pairs = Arrays.copyOf(pairs, nbPairs * 2);
+                    pairs[nbPairs++] = ((long) meadow << 32) | city;
+                }
+            }
+        }
+
+        Arrays.sort(pairs, 0, nbPairs);
+
+        int[] cityCounts = new int[nbNodes];
+        for (int i = 0; i < nbPairs; i++) {
+            if (i == 0 || pairs[i] != pairs[i - 1])
+                cityCounts[(int) (pairs[i] >>> 32)]++;
+        }
+
+        for (int node = 0; node < nbNodes; node++) {
+            if (parent[node] == node && type[node] == Type.MEADOW.ordinal() && pawnTotals[node] > 0)
+                action.accept(node, cityCounts[node]);
+        }
+    }
+
+    /**
+     * Action applied to a meadow by {@link FeatureTracker#forEachFarm(FarmConsumer)}.
+     */
+    @FunctionalInterface
+    public interface FarmConsumer {
+        /**
+         * @param root     The root of the meadow
+         * @param nbCities The number of complete cities the meadow touches
+         */
+        void accept(int root, int nbCities);
+    }
+
+    /**
+     * Gives to {@code action} the root of each city or road which is not complete
+     * and has at least one pawn, for the scoring at the end of the game.
+     *
+     * @param action The action to apply to each feature
+     */
+    public void forEachOpenFeatureWithPawn(IntConsumer action) {
+        for (int node = 0; node < nbNodes; node++) {
+            if (parent[node] == node && type[node] != Type.MEADOW.ordinal() && openEdges[node] > 0
+                    && pawnTotals[node] > 0)
+                action.accept(node);
+        }
+    }
+}
@@ -1,13 +1,59 @@
 package carcassonne.model;
 
 import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
 
+import carcassonne.model.SideCarcassonne.Type;
+import carcassonne.model.TileCarcassonne.SideSelector;
+import exceptions.TileNotFoundException;
 import shared.model.Game;
+import shared.model.MoveList;
+import shared.model.Player;
 import utils.Expandable2DArray;
 import utils.Pair;
 
 public class GameCarcassonne extends Game<SideCarcassonne, TileCarcassonne> {
 
+    // Attributes
+    private FeatureTracker features; // Cities and roads of the board
+    private CloisterTracker cloisters; // Abbeys of the board
+
+    // The last tile placed and its position. Its pawn may be placed after the tile,
+    // so its features are scored when the turn is over, see finishTurn
+    private TileCarcassonne lastPlaced;
+    private int lastX;
+    private int lastY;
+
+    private boolean isScored = false; // Whether the end of the game has been scored
+
+    // Pawns given back to the players, with the spot they were on, to put them
+    // back when a move is undone
+    private final List<TileCarcassonne> returnedPawns = new ArrayList<>();
+    private int[] returnedSpots = new int[16];
+
+    // Record of each placement, to undo it: the marks of the trackers and of
+    // returnedPawns before the placement, whether the pawn was put by makeMove and
+    // the last tile placed whose turn was not finished (if any)
+    private static final int RECORD_FEATURES = 0;
+    private static final int RECORD_CLOISTERS = 1;
+    private static final int RECORD_RETURNED = 2;
+    private static final int RECORD_MOVE_PAWN = 3;
+    private static final int RECORD_PENDING = 4;
+    private static final int RECORD_LAST_X = 5;
+    private static final int RECORD_LAST_Y = 6;
+    private static final int RECORD_PAWN_SPOT = 7; // Spot of the pawn of the tile, hashed at the placement then set when the turn is finished
+    private static final int RECORD_SIZE = 8;
+    private int[] placementRecords = new int[8 * RECORD_SIZE];
+    private int placementRecordsSize = 0;
+
+    // Record of each pass, with the same fields as the records of the placements:
+    // a pass finishes the turn of the last tile placed and may end the game
+    private int[] passRecords = new int[8 * RECORD_SIZE];
+    private int passRecordsSize = 0;
+
     // Constructor
 
     /**
@@ -17,22 +63,32 @@ public class GameCarcassonne extends Game<SideCarcassonne, TileCarcassonne> {
         // Colors for pawns
         Color[] colorPawns = initColors(nbPlayers);
 
+        players = new PlayerCarcassonne[nbPlayers];
         for (int i = 0; i < nbPlayers; i++) {
             players[i] = new PlayerCarcassonne(colorPawns[i]);
         }
         currentPlayer = 0;
+        initRandom(randomSeed());
 
         // Deck
         deckSize = 72;
-        deck = new DeckCarcassonne();
-
-        currentTile = deck.draw();
-        currentPosition = new Pair<>(0, 0);
+        deck = new DeckCarcassonne(splitRandom());
 
-        board = new Expandable2DArray<>(currentTile);
+        initBoard(deck.draw());
     }
 
     public GameCarcassonne(PlayerCarcassonne[] players) {
+        this(players, randomSeed());
+    }
+
+    /**
+     * Creates a game of Carcassonne with the players {@code players}, every random
+     * decision being derived from {@code seed}.
+     * 
+     * @param players The players
+     * @param seed    Seed of the session, see {@link #getSeed()}
+     */
+    public GameCarcassonne(PlayerCarcassonne[] players, long seed) {
         // Colors for pawns
         Color[] colorPawns = initColors(players.length);
 
@@ -42,19 +98,130 @@ public class GameCarcassonne extends Game<SideCarcassonne, TileCarcassonne> {
         // Players
         this.players = players;
         currentPlayer = 0;
+        initRandom(seed);
 
         // Deck
         deckSize = 72;
-        deck = new DeckCarcassonne();
+        deck = new DeckCarcassonne(splitRandom());
+
+        initBoard(deck.draw());
+    }
+
+    /**
+     * Creates a copy of {@code source} for a search, see
+     * {@link #fork(RandomGenerator)}.
+     */
+    private GameCarcassonne(GameCarcassonne source, RandomGenerator random) {
+        players = new PlayerCarcassonne[source.players.length];
+        for (int i = 0; i < players.length; i++) {
+            PlayerCarcassonne player = (PlayerCarcassonne) source.players[i];
+            players[i] = new PlayerCarcassonne(player.getName(), player.getPawnColor());
+        }
+        initRandom(random.nextLong());
+
+        // Deck
+        deckSize = source.deckSize;
+        deck = new DeckCarcassonne((DeckCarcassonne) source.deck, splitRandom());
+
+        // The tiles are placed again in the same order, with their pawns, so the
+        // features, the abbeys and the scores are built as they were
+        TileCarcassonne first = source.board.get(0, 0);
+        initTileToPlace(first.getId(), first.getNbOfRotations(), null);
+        initBoard(tileToPlace);
+
+        for (int i = 1; i < source.board.getNbAdds(); i++) {
+            long position = source.board.getAddedPosition(i);
+            int x = Expandable2DArray.unpackX(position);
+            int y = Expandable2DArray.unpackY(position);
+            TileCarcassonne placed = source.board.get(x, y);
+
+            int pawnSpot = source.placementRecords[(i - 1) * RECORD_SIZE + RECORD_PAWN_SPOT];
+            if (placed == source.lastPlaced)
+                pawnSpot = placed.getPawnSpot();
+
+            PlayerCarcassonne player = (PlayerCarcassonne) players[source.indexOf(placed.getPlayer())];
+            initTileToPlace(placed.getId(), placed.getNbOfRotations(), player);
+            if (pawnSpot >= 0)
+                tileToPlace.placePawn(pawnSpot);
+
+            try {
+                place(x, y, player);
+            } catch (TileNotFoundException e) {
+                throw new IllegalStateException(e.getMessage());
+            }
+            finishTurn();
+        }
+
+        for (int i = 0; i < players.length; i++) {
+            players[i].incrementScore(source.players[i].getScore() - players[i].getScore());
+            players[i].setInGame(source.players[i].isInGame());
+        }
 
-        currentTile = deck.draw();
-        currentPosition = new Pair<>(0, 0);
+        currentPlayer = source.currentPlayer;
+        nbRounds = source.nbRounds;
+        isGameOn = source.isGameOn;
+        currentPosition = source.currentPosition;
+        currentTile = board.get(currentPosition.first, currentPosition.second);
 
-        board = new Expandable2DArray<>(currentTile);
+        if (source.tileToPlace != null)
+            initTileToPlace(source.tileToPlace.getId(), source.tileToPlace.getNbOfRotations(),
+                    (PlayerCarcassonne) getCurrentPlayer());
     }
 
     // Methods
 
+    /**
+     * The content of a tile of Carcassonne is its type, its rotation and the pawn
+     * put on it during its turn, with the player who owns it. A pawn put after
+     * the placement, from the view, is hashed when the turn is finished, see
+     * finishTurn. The pawns given back by the scoring only follow from the tiles on
+     * the board, so they stay in the hash.
+     */
+    @Override
+    protected long tileKey(TileCarcassonne tile) {
+        return tileKey(tile, tile.getPawnSpot());
+    }
+
+    private long tileKey(TileCarcassonne tile, int pawn) {
+        int owner = -1;
+        for (int p = 0; p < players.length && pawn >= 0; p++) {
+            if (players[p] == tile.getPlayer())
+                owner = p;
+        }
+
+        return ((long) owner << 32) | ((pawn + 1) << 8) | (tile.getId() << 2) | tile.getNbOfRotations();
+    }
+
+    /**
+     * Returns a copy of the game for a search. The copy has its own players, its
+     * own board and its own trackers, so it can be played and undone by another
+     * thread while the game goes on. The board, the scores, the pawns, the current
+     * player and the tile to place are the same, but the order of the deck is
+     * hidden: the deck of the copy has the same tiles, shuffled with
+     * {@code random}. A placement whose turn is not finished yet is finished in
+     * the copy.
+     * 
+     * @param random The generator of the copy
+     * @return The copy of the game
+     */
+    public GameCarcassonne fork(RandomGenerator random) {
+        return new GameCarcassonne(this, random);
+    }
+
+    /**
+     * Shuffles the tiles left in the deck again, to sample another order of the
+     * hidden tiles in a copy made by {@link #fork(RandomGenerator)}.
+     */
+    public void shuffleRemainingTiles() {
+        deck.shuffle();
+    }
+
+    private void initTileToPlace(int type, int nbOfRotations, PlayerCarcassonne player) {
+        tileToPlace = new TileCarcassonne(type);
+        turnTile(nbOfRotations);
+        tileToPlace.setPlayer(player);
+    }
+
     private Color[] initColors(int nbPlayers) {
         Color[] pawns = new Color[nbPlayers];
         for (int i = 0; i < nbPlayers; i++) {
@@ -80,7 +247,12 @@ public class GameCarcassonne extends Game<SideCarcassonne, TileCarcassonne> {
 
     @Override
     public void initGame(boolean resetScore) {
-        // resetScore if score implemented
+        // scores & pawns
+        for (int i = 0; i < players.length; i++) {
+            if (resetScore)
+                players[i].resetScore();
+            ((PlayerCarcassonne) players[i]).resetRemainingPawns();
+        }
 
         // nbRounds
         nbRounds = 0;
@@ -91,24 +263,489 @@ public class GameCarcassonne extends Game<SideCarcassonne, TileCarcassonne> {
         }
 
         // deck
-        deck = new DeckCarcassonne();
+        deck = new DeckCarcassonne(splitRandom());
 
         // currentPlayer
         currentPlayer = 0;
 
-        // currentTile & currentPosition
-        currentTile = deck.draw();
-        currentPosition = new Pair<>(0, 0);
-
-        // board
-        board = new Expandable2DArray<>(currentTile);
+        // board, currentTile & currentPosition
+        initBoard(deck.draw());
 
         // isGameOn
         isGameOn = true;
     }
 
+    public FeatureTracker getFeatures() {
+        return features;
+    }
+
+    public CloisterTracker getCloisters() {
+        return cloisters;
+    }
+
+    @Override
+    protected void initBoard(TileCarcassonne firstTile) {
+        super.initBoard(firstTile);
+
+        features = new FeatureTracker(players.length);
+        features.place(firstTile, 0, 0);
+
+        cloisters = new CloisterTracker();
+        cloisters.place(firstTile, 0, 0, board);
+
+        lastPlaced = null;
+        isScored = false;
+
+        returnedPawns.clear();
+        placementRecordsSize = 0;
+        passRecordsSize = 0;
+    }
+
+    /**
+     * Returns the mask of the spots where the player of the tile to place can put
+     * a pawn on it, if it is, or would be, placed at ({@code x}, {@code y}): the
+     * spots of the tile, see {@link TileCarcassonne#getPawnSpots()}, which are not
+     * on a city, a road or a meadow which already has a pawn. The mask is 0 if
+     * there is already a pawn on the tile or if the player has no pawn left.
+     * 
+     * @param x X position of the tile
+     * @param y Y position of the tile
+     * @return The mask of the legal spots
+     */
+    public int getLegalPawnSpots(int x, int y) {
+        TileCarcassonne tile = tileToPlace;
+
+        if (tile.isPawnPlaced() || tile.getPlayer() == null || tile.getPlayer().getRemainingPawns() == 0)
+            return 0;
+
+        return legalSpots(tile, x, y);
+    }
+
+    /**
+     * Returns the mask of the spots where a pawn can be put on the tile to place,
+     * for at least one of the positions where it can be placed with its current
+     * orientation. It is used before the tile is placed, when its position is
+     * not known yet.
+     * 
+     * @return The mask of the possible spots
+     */
+    public int getPossiblePawnSpots() {
+        TileCarcassonne tile = tileToPlace;
+
+        if (tile.isPawnPlaced() || tile.getPlayer() == null || tile.getPlayer().getRemainingPawns() == 0)
+            return 0;
+
+        int spots = 0;
+        for (long cell : board.getFrontier()) {
+            int x = Expandable2DArray.unpackX(cell);
+            int y = Expandable2DArray.unpackY(cell);
+
+            getNeighborsFromPosition(x, y, neighborsBuffer);
+            if (tile.canBePlaced(neighborsBuffer))
+                spots |= legalSpots(tile, x, y);
+        }
+
+        return spots;
+    }
+
+    private int legalSpots(TileCarcassonne tile, int x, int y) {
+        int owned = features.getOwnedSegments(tile, x, y);
+        int spots = tile.getPawnSpots();
+        int legal = 0;
+
+        for (int remaining = spots; remaining != 0; remaining &= remaining - 1) {
+            int spot = Integer.numberOfTrailingZeros(remaining);
+            int segment = tile.segmentOfSpot(spot);
+
+            if (segment < 0 || (owned & (1 << segment)) == 0)
+                legal |= 1 << spot;
+        }
+
+        return legal;
+    }
+
+    /**
+     * Fills {@code moves} with the legal moves of the current player: for each
+     * cell and each rotation which fits it, the move without a pawn followed by
+     * the moves with a pawn on each legal spot. The rotations come from
+     * {@link PlacementTable}, keeping only the ones which give different tiles
+     * (see {@link TileSegments#getDistinctRotations(int)}), and only one spot is
+     * kept for each segment, the other spots of the same city, road or meadow
+     * giving the same move. If a pawn is already on the tile to place, only the
+     * moves without a pawn are given and the pawn stays on the tile.
+     * 
+     * @param moves The list to fill, cleared first
+     * @return The number of moves
+     */
+    @Override
+    public int generateMoves(MoveList moves) {
+        moves.clear();
+        TileCarcassonne tile = tileToPlace;
+
+        if (tile == null || tile.isPlaced())
+            return 0;
+
+        int type = tile.getId();
+        int distinct = TileSegments.getDistinctRotations(type);
+        boolean canPutPawn = !tile.isPawnPlaced() && tile.getPlayer() != null
+                && tile.getPlayer().getRemainingPawns() > 0;
+
+        for (int i = 0; i < board.getFrontierSize(); i++) {
+            long cell = board.getFrontierCell(i);
+            int x = Expandable2DArray.unpackX(cell);
+            int y = Expandable2DArray.unpackY(cell);
+
+            getNeighborsFromPosition(x, y, neighborsBuffer);
+            int rotations = PlacementTable.fittingRotations(PlacementTable.pattern(neighborsBuffer), type) & distinct;
+
+            for (; rotations != 0; rotations &= rotations - 1) {
+                int rotation = Integer.numberOfTrailingZeros(rotations);
+                // The moves turn the tile from its current orientation
+                int turns = (rotation - tile.getNbOfRotations() + 4) % 4;
+
+                moves.add(x, y, turns, MoveList.NO_PAWN);
+
+                if (canPutPawn)
+                    addPawnMoves(moves, x, y, type, rotation, turns);
+            }
+        }
+
+        return moves.size();
+    }
+
+    private void addPawnMoves(MoveList moves, int x, int y, int type, int rotation, int turns) {
+        // The owned segments and the ones which already have a spot are skipped
+        int skipped = features.getOwnedSegments(type, rotation, x, y);
+
+        for (int spots = TileCarcassonne.getPawnSpots(type, rotation); spots != 0; spots &= spots - 1) {
+            int spot = Integer.numberOfTrailingZeros(spots);
+            int segment = TileCarcassonne.segmentOfSpot(type, rotation, spot);
+
+            if (segment < 0) {
+                moves.add(x, y, turns, spot);
+            } else if ((skipped & (1 << segment)) == 0) {
+                skipped |= 1 << segment;
+                moves.add(x, y, turns, spot);
+            }
+        }
+    }
+
+    /**
+     * Places the tile to place and merges its features with the ones of its
+     * neighbors. The completed features are scored at the end of the turn.
+     * 
+     * @throws IllegalArgumentException If a pawn was put on the tile on a feature
+     *                                  which already has a pawn
+     */
+    @Override
+    public void place(int x, int y, Player player) throws TileNotFoundException {
+        // The pawn may have been put on the tile before its position was known
+        if (tileToPlace != null && tileToPlace.isPawnPlaced()
+                && (legalSpots(tileToPlace, x, y) & (1 << tileToPlace.getPawnSpot())) == 0)
+            throw new IllegalArgumentException("The pawn cannot be placed on a feature which already has a pawn");
+
+        int featuresMark = features.mark();
+        int cloistersMark = cloisters.mark();
+
+        super.place(x, y, player);
+
+        recordPlacement(featuresMark, cloistersMark);
+        placementRecords[placementRecordsSize - RECORD_SIZE + RECORD_PAWN_SPOT] = tileToPlace.getPawnSpot();
+
+        features.place(tileToPlace, x, y);
+        cloisters.place(tileToPlace, x, y, board);
+
+        lastPlaced = tileToPlace;
+        lastX = x;
+        lastY = y;
+    }
+
+    private void recordPlacement(int featuresMark, int cloistersMark) {
+        if (placementRecordsSize + RECORD_SIZE > placementRecords.length)
+            placementRecords = Arrays.copyOf(placementRecords, placementRecords.length * 2);
+
+        writeRecord(placementRecords, placementRecordsSize, featuresMark, cloistersMark);
+        placementRecordsSize += RECORD_SIZE;
+    }
+
+    /**
+     * Records the trackers, the pawns given back and the last tile placed before
+     * the pass, which may finish its turn and score the end of the game.
+     */
+    @Override
+    protected void recordPass() {
+        if (passRecordsSize + RECORD_SIZE > passRecords.length)
+            passRecords = Arrays.copyOf(passRecords, passRecords.length * 2);
+
+        writeRecord(passRecords, passRecordsSize, features.mark(), cloisters.mark());
+        passRecordsSize += RECORD_SIZE;
+    }
+
+    private void writeRecord(int[] records, int record, int featuresMark, int cloistersMark) {
+        records[record + RECORD_FEATURES] = featuresMark;
+        records[record + RECORD_CLOISTERS] = cloistersMark;
+        records[record + RECORD_RETURNED] = returnedPawns.size();
+        records[record + RECORD_MOVE_PAWN] = 0;
+        records[record + RECORD_PENDING] = lastPlaced != null ? 1 : 0;
+        records[record + RECORD_LAST_X] = lastX;
+        records[record + RECORD_LAST_Y] = lastY;
+        records[record + RECORD_PAWN_SPOT] = -1;
+    }
+
+    /**
+     * Plays a whole turn of the current player: turns the tile to place
+     * {@code rotation} times to the right, puts a pawn on the spot
+     * {@code pawnSpot} (see {@link TileCarcassonne#getPawnSpots()}) if it is not
+     * -1, places the tile at the given position, then ends the round. The move
+     * can be undone with {@link #undoMove()}, the pawn included.
+     * 
+     * @param x        X position of the tile
+     * @param y        Y position of the tile
+     * @param rotation Number of rotations to the right, between 0 and 3
+     * @param pawnSpot The spot of the pawn, -1 for no pawn
+     * @throws TileNotFoundException If there is no tile to place
+     */
+    public void makeMove(int x, int y, int rotation, int pawnSpot) throws TileNotFoundException {
+        if (pawnSpot < 0) {
+            makeMove(x, y, rotation);
+            return;
+        }
+
+        checkMove(rotation);
+        turnTile(rotation);
+
+        try {
+            tileToPlace.placePawn(pawnSpot);
+        } catch (RuntimeException e) {
+            turnTile(-rotation);
+            throw e;
+        }
+
+        try {
+            place(x, y, getCurrentPlayer());
+        } catch (TileNotFoundException | RuntimeException e) {
+            tileToPlace.removePawn();
+            turnTile(-rotation);
+            throw e;
+        }
+
+        placementRecords[placementRecordsSize - RECORD_SIZE + RECORD_MOVE_PAWN] = 1;
+        endMove(rotation);
+    }
+
+    /**
+     * Plays a move packed as described in {@link MoveList}, like
+     * {@link #makeMove(int, int, int, int)}.
+     * 
+     * @param move The packed move
+     * @throws TileNotFoundException If there is no tile to place
+     */
+    @Override
+    public void makeMove(long move) throws TileNotFoundException {
+        makeMove(MoveList.getX(move), MoveList.getY(move), MoveList.getRotation(move), MoveList.getPawnSpot(move));
+    }
+
+    /**
+     * Undoes the changes of the trackers, puts back the pawns given back to the
+     * players since the placement and removes the pawn put by makeMove.
+     */
+    @Override
+    protected void undoPlacement(TileCarcassonne tile, int x, int y) {
+        placementRecordsSize -= RECORD_SIZE;
+        int record = placementRecordsSize;
+
+        undoRecord(placementRecords, record);
+
+        if (placementRecords[record + RECORD_MOVE_PAWN] != 0)
+            tile.removePawn();
+
+        super.undoPlacement(tile, x, y);
+    }
+
+    /**
+     * Undoes the end of the turn of the last tile placed and the scoring of the
+     * end of the game done by the pass.
+     */
+    @Override
+    protected void undoPass() {
+        passRecordsSize -= RECORD_SIZE;
+
+        undoRecord(passRecords, passRecordsSize);
+
+        super.undoPass();
+    }
+
+    /**
+     * Brings the trackers, the pawns given back and the last tile placed back to
+     * the record at the index {@code record} of {@code records}.
+     */
+    private void undoRecord(int[] records, int record) {
+        features.undo(records[record + RECORD_FEATURES]);
+        cloisters.undo(records[record + RECORD_CLOISTERS]);
+
+        for (int i = returnedPawns.size() - 1; i >= records[record + RECORD_RETURNED]; i--) {
+            returnedPawns.remove(i).placePawn(returnedSpots[i]);
+        }
+
+        lastX = records[record + RECORD_LAST_X];
+        lastY = records[record + RECORD_LAST_Y];
+        lastPlaced = records[record + RECORD_PENDING] != 0 ? board.get(lastX, lastY) : null;
+
+        isScored = false;
+    }
+
+    /**
+     * Finishes the turn of the last tile placed: its pawn, if any, is added to its
+     * feature, then the features completed during the turn are scored and their
+     * pawns are given back.
+     */
+    private void finishTurn() {
+        if (lastPlaced != null) {
+            int record = placementRecordsSize - RECORD_SIZE;
+            int hashedSpot = placementRecords[record + RECORD_PAWN_SPOT];
+
+            // The pawn put by the view after the placement enters the hash now
+            if (lastPlaced.getPawnSpot() != hashedSpot)
+                rehashTile(lastX, lastY, tileKey(lastPlaced, hashedSpot));
+
+            placementRecords[record + RECORD_PAWN_SPOT] = lastPlaced.getPawnSpot();
+            addPawn(lastPlaced, lastX, lastY);
+            lastPlaced = null;
+        }
+
+        features.pollCompleted(root -> scoreFeature(root, true));
+        cloisters.pollCompleted(tile -> scoreAbbey(tile, CloisterTracker.NB_NEIGHBORS));
+    }
+
+    private void addPawn(TileCarcassonne tile, int x, int y) {
+        int spot = tile.getPawnSpot();
+
+        // The pawns on the abbeys are handled by the cloisters
+        if (spot < 0 || spot == TileCarcassonne.CENTER_SPOT)
+            return;
+
+        int segment = TileSegments.getSegments(tile.getId(), tile.getNbOfRotations())[tile.segmentOfSpot(spot)];
+        int node;
+        if (TileSegments.getType(segment) == Type.MEADOW)
+            node = features.portNodeAt(x, y, Integer.numberOfTrailingZeros(TileSegments.getMask(segment)));
+        else
+            node = features.nodeAt(x, y, Integer.numberOfTrailingZeros(TileSegments.getMask(segment)));
+
+        features.addPawn(node, indexOf(tile.getPlayer()));
+    }
+
+    private int indexOf(Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == player)
+                return i;
+        }
+        throw new IllegalArgumentException("The player is not in the game");
+    }
+
+    /**
+     * Gives the points of the feature of root {@code root} to the players who have
+     * the most pawns on it and gives back the pawns. A road is worth 1 point per
+     * tile, a city 2 points per tile if it is complete, 1 otherwise.
+     */
+    private void scoreFeature(int root, boolean isComplete) {
+        int owners = features.getOwners(root);
+
+        if (owners == 0)
+            return;
+
+        int points = features.countDistinctTiles(root);
+        if (isComplete && features.getType(root) == Type.CITY)
+            points *= 2;
+
+        for (int p = 0; p < players.length; p++) {
+            if ((owners & (1 << p)) != 0)
+                players[p].incrementScore(points);
+        }
+
+        features.removePawns(root, this::returnPawn);
+    }
+
+    /**
+     * Gives 3 points per complete city touched by the meadow of root {@code root}
+     * to the players who have the most pawns on it and gives back the pawns.
+     */
+    private void scoreFarm(int root, int nbCities) {
+        int owners = features.getOwners(root);
+
+        for (int p = 0; p < players.length; p++) {
+            if ((owners & (1 << p)) != 0)
+                players[p].incrementScore(3 * nbCities);
+        }
+
+        features.removePawns(root, this::returnPawn);
+    }
+
+    /**
+     * Gives the points of the abbey of {@code tile} to the player who has a pawn
+     * on it, 1 point for the abbey and 1 point per tile around it, and gives back
+     * the pawn.
+     */
+    private void scoreAbbey(TileCarcassonne tile, int nbNeighbors) {
+        Pair<SideSelector, Integer> pawn = tile.getPawnPosition();
+
+        if (pawn == null || pawn.first != SideSelector.CENTER)
+            return;
+
+        tile.getPlayer().incrementScore(1 + nbNeighbors);
+        returnPawn(tile);
+    }
+
+    /**
+     * Removes the pawn of {@code tile} and gives it back to its player, the spot
+     * being recorded to put it back if the move is undone.
+     */
+    private void returnPawn(TileCarcassonne tile) {
+        int index = returnedPawns.size();
+
+        if (index == returnedSpots.length)
+            returnedSpots = Arrays.copyOf(returnedSpots, index * 2);
+
+        returnedSpots[index] = tile.getPawnSpot();
+        returnedPawns.add(tile);
+        tile.removePawn();
+    }
+
+    /**
+     * Ends the game if it is over. The last turn is finished, the features and
+     * the abbeys which are not complete are scored once, then the farms.
+     */
+    @Override
+    public boolean endGame() {
+        boolean isOver = super.endGame();
+
+        if (isOver && !isScored) {
+            finishTurn();
+            features.forEachOpenFeatureWithPawn(root -> scoreFeature(root, false));
+            cloisters.forEachOpen(this::scoreAbbey);
+            features.forEachFarm(this::scoreFarm);
+            isScored = true;
+        }
+
+        return isOver;
+    }
+
+    /**
+     * Returns the number of tiles left in the deck which could be placed at the
+     * given position with at least one rotation.
+     * 
+     * @param x X position of the cell
+     * @param y Y position of the cell
+     * @return The number of tiles of the deck which fit the cell
+     */
+    public int countFittingTiles(int x, int y) {
+        getNeighborsFromPosition(x, y, neighborsBuffer);
+        return ((DeckCarcassonne) deck).countFitting(PlacementTable.pattern(neighborsBuffer));
+    }
+
     @Override
     public void updateGameRound() {
+        finishTurn();
+
         super.updateGameRound();
         tileToPlace.setPlayer(((PlayerCarcassonne) getCurrentPlayer()));
     }
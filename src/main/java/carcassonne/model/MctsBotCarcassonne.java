@@ -0,0 +1,332 @@
+package carcassonne.model;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+
+import exceptions.TileNotFoundException;
+import shared.model.MoveList;
+import shared.model.Player;
+
+/**
+ * A bot of Carcassonne which chooses its move with a Monte Carlo tree search.
+ *
+ * <p>
+ * The search is parallelized at the root: each worker of the pool plays on its
+ * own copy of the game (see {@link GameCarcassonne#fork(RandomGenerator)}) and
+ * keeps its own statistics of the moves of the bot, which are summed at the end.
+ * The workers share nothing while they search, so the number of playouts grows
+ * with the number of cores. The tiles drawn after the move of the bot are not
+ * known, so the tree is kept to the moves of the bot and each playout samples
+ * another order of the tiles left in the deck before playing random moves until
+ * the end of the game. The moves are chosen with UCB1 and the most visited one
+ * is played.
+ * </p>
+ */
+public class MctsBotCarcassonne extends BotCarcassonne {
+
+    public static final long DEFAULT_TIME_BUDGET = 1000; // Milliseconds of search per move
+
+    private static final double EXPLORATION = Math.sqrt(2); // Constant of UCB1
+
+    // Attributes
+
+    private final ForkJoinPool pool; // Pool of the workers of the search, null to search on the calling thread
+
+    // Budget of a search, 0 meaning no limit. At least one of them is positive
+    private long timeBudget = DEFAULT_TIME_BUDGET; // Milliseconds
+    private long iterationBudget = 0; // Number of playouts
+
+    // Statistics of the last search
+    private long lastPlayouts = 0;
+    private long lastDuration = 0; // Nanoseconds
+
+    // Constructors
+
+    public MctsBotCarcassonne(Color colorPawn) {
+        this(colorPawn, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a bot which searches with the workers of {@code pool}, one copy of
+     * the game being searched by each thread of the pool. Without a pool, the
+     * bot searches with a single worker on the thread which chooses its move, for
+     * example when the games themselves are played in parallel.
+     *
+     * @param colorPawn The color of the pawns of the bot
+     * @param pool      The pool of the search, {@code null} for none
+     */
+    public MctsBotCarcassonne(Color colorPawn, ForkJoinPool pool) {
+        super(colorPawn);
+
+        this.pool = pool;
+    }
+
+    // Getters
+
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    public long getIterationBudget() {
+        return iterationBudget;
+    }
+
+    /**
+     * Returns the number of playouts of the last search.
+     *
+     * @return The number of playouts
+     */
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    /**
+     * Returns the number of playouts per second of the last search, all the
+     * workers together.
+     *
+     * @return The number of playouts per second, 0 if there was no search
+     */
+    public double getPlayoutsPerSecond() {
+        return lastDuration == 0 ? 0 : lastPlayouts * 1e9 / lastDuration;
+    }
+
+    /**
+     * Returns the number of playouts per second of each worker during the last
+     * search, to compare the throughput on machines with different numbers of
+     * cores.
+     *
+     * @return The number of playouts per second and per worker
+     */
+    public double getPlayoutsPerSecondPerCore() {
+        return getPlayoutsPerSecond() / getNbWorkers();
+    }
+
+    /**
+     * Returns the number of workers of a search: one per thread of the pool, or
+     * one if the bot has no pool.
+     *
+     * @return The number of workers
+     */
+    public int getNbWorkers() {
+        return pool == null ? 1 : pool.getParallelism();
+    }
+
+    // Setters
+
+    /**
+     * Sets the budget of a search in time.
+     *
+     * @param millis The number of milliseconds of a search, 0 for no limit
+     * @throws IllegalArgumentException If the budget is negative or if the search
+     *                                  would have no limit
+     */
+    public void setTimeBudget(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("The time budget must be positive");
+
+        if (millis == 0 && iterationBudget == 0)
+            throw new IllegalArgumentException("The search must have a time or an iteration budget");
+
+        timeBudget = millis;
+    }
+
+    /**
+     * Sets the budget of a search in playouts, split between the workers. With
+     * no time budget, the search is reproducible: it only depends on the stream
+     * of the bot in the session and on the parallelism of the pool.
+     *
+     * @param iterations The number of playouts of a search, 0 for no limit
+     * @throws IllegalArgumentException If the budget is negative or if the search
+     *                                  would have no limit
+     */
+    public void setIterationBudget(long iterations) {
+        if (iterations < 0)
+            throw new IllegalArgumentException("The iteration budget must be positive");
+
+        if (iterations == 0 && timeBudget == 0)
+            throw new IllegalArgumentException("The search must have a time or an iteration budget");
+
+        iterationBudget = iterations;
+    }
+
+    // Methods
+
+    @Override
+    public long chooseMove(GameCarcassonne model, MoveList moves) {
+        return moves.size() == 1 ? moves.get(0) : search(model, moves);
+    }
+
+    /**
+     * Searches the moves of {@code moves} on copies of {@code model} and returns
+     * the most visited one.
+     */
+    private long search(GameCarcassonne model, MoveList moves) {
+        RandomGenerator random = model.getRandomGenerator(this);
+        long[] rootMoves = moves.stream().toArray();
+        int nbWorkers = getNbWorkers();
+
+        long start = System.nanoTime();
+        long deadline = timeBudget == 0 ? 0 : start + timeBudget * 1_000_000;
+
+        // The copies are made here, the workers only play on them
+        List<Worker> workers = new ArrayList<>(nbWorkers);
+        for (int w = 0; w < nbWorkers; w++) {
+            long iterations = iterationBudget == 0 ? Long.MAX_VALUE
+                    : iterationBudget / nbWorkers + (w < iterationBudget % nbWorkers ? 1 : 0);
+            RandomGenerator workerRandom = new SplittableRandom(random.nextLong());
+
+            workers.add(new Worker(model.fork(workerRandom), rootMoves, workerRandom, iterations, deadline));
+        }
+
+        long[] visits = new long[rootMoves.length];
+        double[] rewards = new double[rootMoves.length];
+        lastPlayouts = 0;
+
+        if (pool == null) {
+            try {
+                workers.get(0).call();
+            } catch (TileNotFoundException e) {
+                throw new IllegalStateException("The search failed", e);
+            }
+        } else {
+            for (Future<Void> future : pool.invokeAll(workers)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("The search failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("The search was interrupted", e);
+                }
+            }
+        }
+
+        for (Worker worker : workers) {
+            for (int i = 0; i < rootMoves.length; i++) {
+                visits[i] += worker.visits[i];
+                rewards[i] += worker.rewards[i];
+            }
+            lastPlayouts += worker.playouts;
+        }
+        lastDuration = System.nanoTime() - start;
+
+        int best = 0;
+        for (int i = 1; i < rootMoves.length; i++) {
+            if (visits[i] > visits[best] || (visits[i] == visits[best] && rewards[i] > rewards[best]))
+                best = i;
+        }
+
+        return rootMoves[best];
+    }
+
+    /**
+     * A worker of the search, which plays on its own copy of the game.
+     */
+    private static final class Worker implements Callable<Void> {
+
+        private final GameCarcassonne game;
+        private final long[] rootMoves;
+        private final RandomGenerator random;
+        private final long maxPlayouts;
+        private final long deadline; // Value of System.nanoTime() to stop at, 0 for none
+
+        private final MoveList moves = new MoveList();
+        private final long[] visits;
+        private final double[] rewards;
+        private long playouts = 0;
+
+        private Worker(GameCarcassonne game, long[] rootMoves, RandomGenerator random, long maxPlayouts,
+                long deadline) {
+            this.game = game;
+            this.rootMoves = rootMoves;
+            this.random = random;
+            this.maxPlayouts = maxPlayouts;
+            this.deadline = deadline;
+            visits = new long[rootMoves.length];
+            rewards = new double[rootMoves.length];
+        }
+
+        @Override
+        public Void call() throws TileNotFoundException {
+            Player bot = game.getCurrentPlayer();
+
+            while (playouts < maxPlayouts && (deadline == 0 || System.nanoTime() - deadline < 0)) {
+                int chosen = select();
+
+                game.shuffleRemainingTiles();
+
+                // The game is off once the last tile is drawn, but this tile is still played
+                boolean isLastTurn = !game.isGameOn();
+                game.makeMove(rootMoves[chosen]);
+                int nbMoves = 1;
+
+                while (!isLastTurn) {
+                    isLastTurn = !game.isGameOn();
+                    if (game.generateMoves(moves) == 0)
+                        game.passMove();
+                    else
+                        game.makeMove(moves.get(chooseRandomMove(moves, random)));
+                    nbMoves++;
+                }
+
+                visits[chosen]++;
+                rewards[chosen] += reward(bot);
+                playouts++;
+
+                // The copy is back at the move of the bot for the next playout
+                for (int i = 0; i < nbMoves; i++) {
+                    game.undoMove();
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Returns the index of the move to play next: a move never played, or the
+         * one with the best upper confidence bound.
+         */
+        private int select() {
+            int best = 0;
+            double bestBound = Double.NEGATIVE_INFINITY;
+            double logPlayouts = Math.log(playouts);
+
+            for (int i = 0; i < rootMoves.length; i++) {
+                if (visits[i] == 0)
+                    return i;
+
+                double bound = rewards[i] / visits[i] + EXPLORATION * Math.sqrt(logPlayouts / visits[i]);
+                if (bound > bestBound) {
+                    bestBound = bound;
+                    best = i;
+                }
+            }
+
+            return best;
+        }
+
+        /**
+         * Returns 1 if {@code bot} has won the game, 0.5 if it shares the first
+         * place, 0 otherwise.
+         */
+        private double reward(Player bot) {
+            int bestOther = Integer.MIN_VALUE;
+
+            for (Player player : game.getRanking()) {
+                if (player != bot && player.isInGame())
+                    bestOther = Math.max(bestOther, player.getScore());
+            }
+
+            if (bot.getScore() > bestOther)
+                return 1;
+            return bot.getScore() == bestOther ? 0.5 : 0;
+        }
+    }
+}
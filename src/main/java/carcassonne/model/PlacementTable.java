@@ -0,0 +1,125 @@
+package carcassonne.model;
+
+import interfaces.Placeable;
+
+/**
+ * Precomputed answers to the question "which tiles fit in this cell ?".
+ *
+ * <p>
+ * The constraint of a cell is the type of the side of each neighbor facing the
+ * cell, or nothing if there is no neighbor in a direction. With 2 bits per
+ * direction (0 for no neighbor, 1 + the ordinal of the type otherwise) a
+ * constraint is a pattern between 0 and 255. For each pattern, the table gives
+ * the rotations of each type of tile which fit, so that testing a placement is
+ * a single lookup instead of turning a tile and comparing its sides.
+ * </p>
+ */
+public final class PlacementTable {
+
+    public static final int NB_PATTERNS = 1 << 8; // Number of different constraints
+
+    private static final int NB_TYPES = TileCarcassonnePrototype.NB_TYPES;
+
+    // ROTATIONS[pattern * NB_TYPES + type] is the mask of the rotations of the type
+    // which fit the pattern, the bit r standing for r rotations to the right
+    private static final byte[] ROTATIONS = new byte[NB_PATTERNS * NB_TYPES];
+
+    // TYPES[pattern] is the mask of the types which fit the pattern with at least
+    // one rotation
+    private static final int[] TYPES = new int[NB_PATTERNS];
+
+    static {
+        // A tile must be placed next to at least one tile, so the empty pattern
+        // accepts nothing
+        for (int pattern = 1; pattern < NB_PATTERNS; pattern++) {
+            for (int type = 0; type < NB_TYPES; type++) {
+                int rotations = 0;
+
+                for (int rotation = 0; rotation < 4; rotation++) {
+                    if (fitsPattern(pattern, type, rotation))
+                        rotations |= 1 << rotation;
+                }
+
+                ROTATIONS[pattern * NB_TYPES + type] = (byte) rotations;
+
+                if (rotations != 0)
+                    TYPES[pattern] |= 1 << type;
+            }
+        }
+    }
+
+    private PlacementTable() {
+    }
+
+    private static boolean fitsPattern(int pattern, int type, int rotation) {
+        TileCarcassonnePrototype prototype = TileCarcassonnePrototype.get(type);
+
+        for (int direction = 0; direction < 4; direction++) {
+            int constraint = (pattern >>> (2 * direction)) & 0b11;
+
+            if (constraint != 0 && prototype.getSideType(rotation, direction).ordinal() != constraint - 1)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the pattern of the constraint given by {@code neighbors}.
+     *
+     * @param neighbors The neighbors of the cell indexed by their direction, see
+     *                  {@link Placeable#canBePlaced(Placeable[])}
+     * @return The pattern of the cell
+     */
+    public static int pattern(Placeable<SideCarcassonne>[] neighbors) {
+        int pattern = 0;
+
+        for (int direction = 0; direction < 4; direction++) {
+            if (neighbors[direction] != null) {
+                // The side of the neighbor which faces the cell
+                SideCarcassonne side = neighbors[direction]
+                        .getSide(Placeable.intToDirection((direction + 2) % 4));
+                pattern |= (side.getType().ordinal() + 1) << (2 * direction);
+            }
+        }
+
+        return pattern;
+    }
+
+    /**
+     * Returns the mask of the rotations of the type {@code type} which fit the
+     * pattern {@code pattern}. The bit {@code r} is set if the type turned
+     * {@code r} times to the right fits.
+     *
+     * @param pattern The pattern of the cell
+     * @param type    The type of the tile
+     * @return The mask of the rotations which fit
+     */
+    public static int fittingRotations(int pattern, int type) {
+        return ROTATIONS[pattern * NB_TYPES + type];
+    }
+
+    /**
+     * Returns {@code true} if the type {@code type} turned {@code rotation} times
+     * to the right fits the pattern {@code pattern}.
+     *
+     * @param pattern  The pattern of the cell
+     * @param type     The type of the tile
+     * @param rotation The number of rotations to the right
+     * @return {@code true} if the tile fits
+     */
+    public static boolean fits(int pattern, int type, int rotation) {
+        return (fittingRotations(pattern, type) & (1 << rotation)) != 0;
+    }
+
+    /**
+     * Returns the mask of the types which fit the pattern {@code pattern} with at
+     * least one rotation, the bit {@code t} standing for the type {@code t}.
+     *
+     * @param pattern The pattern of the cell
+     * @return The mask of the types which fit
+     */
+    public static int fittingTypes(int pattern) {
+        return TYPES[pattern];
+    }
+}
@@ -7,9 +7,11 @@ import shared.model.Player;
 public class PlayerCarcassonne extends Player {
     // Attributes
 
+    public static final int NB_PAWNS = 10; // Number of pawns of a player at the beginning
+
     private static int nbPlayers;
     private int id;
-    protected int remainingPawns = 10;
+    protected int remainingPawns = NB_PAWNS;
 
     private Color pawnColor;
 
@@ -56,4 +58,11 @@ public class PlayerCarcassonne extends Player {
     public void increaseRemainingPawns() {
         remainingPawns++;
     }
+
+    /**
+     * Gives back all the pawns to the player, for a new game.
+     */
+    public void resetRemainingPawns() {
+        remainingPawns = NB_PAWNS;
+    }
 }
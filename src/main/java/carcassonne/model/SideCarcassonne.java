@@ -10,6 +10,10 @@ public class SideCarcassonne extends Side {
         CITY, MEADOW, PATH
     }
 
+    // Shared sides, one per type
+    private static final SideCarcassonne[] SIDES = { new SideCarcassonne(Type.CITY),
+            new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.PATH) };
+
     // Attributes
     private final Type type;
 
@@ -18,6 +22,17 @@ public class SideCarcassonne extends Side {
         this.type = type;
     }
 
+    /**
+     * Returns the shared side of type {@code type}. The sides are immutable so
+     * they can be shared by all the tiles.
+     * 
+     * @param type The type of the side
+     * @return The side of type {@code type}
+     */
+    public static SideCarcassonne of(Type type) {
+        return SIDES[type.ordinal()];
+    }
+
     // Getters
     public Type getType() {
         return type;
@@ -30,7 +45,7 @@ public class SideCarcassonne extends Side {
 
     @Override
     public SideCarcassonne copy() {
-        return new SideCarcassonne(type);
+        return of(type);
     }
 
     public String toString() {
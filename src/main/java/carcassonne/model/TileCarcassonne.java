@@ -1,7 +1,6 @@
 package carcassonne.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.random.RandomGenerator;
 
 import interfaces.Placeable;
 import carcassonne.model.SideCarcassonne.Type;
@@ -9,42 +8,51 @@ import exceptions.UnableToTurnException;
 import shared.model.Tile;
 import utils.Pair;
 
+/**
+ * A tile of Carcassonne. The sides of the tile come from the shared prototype
+ * of its type, see {@link TileCarcassonnePrototype}, so a tile is only its type,
+ * its rotation, its pawn and the player who placed it.
+ */
 public class TileCarcassonne extends Tile<SideCarcassonne> {
 
     public enum SideSelector {
         NORTH, EAST, SOUTH, WEST, CENTER
     }
 
-    private int nbOfRotations = 0;
+    private static final int NO_PAWN = -1;
+
+    // The spots where a pawn can be put are numbered 3 * side + position for the
+    // sides (in the current orientation, see placePawn), and CENTER_SPOT for the
+    // abbey. A set of spots is a mask of NB_PAWN_SPOTS bits.
+    public static final int NB_PAWN_SPOTS = 13;
+    public static final int CENTER_SPOT = 12;
 
-    private boolean hasAbbey;
+    private final TileCarcassonnePrototype prototype;
+
+    private int nbOfRotations = 0;
 
     private PlayerCarcassonne player;
 
-    // This list contains the possible positions of the pawns on the tile. If the
-    // tile has an abbey, the last element of the list is the abbey. The rest of the
-    // elements are in the following order: NESW(Abbey). If the side has a path, the
-    // element of the list is an array of 3 booleans. If the side has a city or a
-    // meadow, the element of the list is an array of 1 boolean. The boolean is true
-    // if a pawn is placed on that spot and only one pawn per Tile can be placed .
-    private List<boolean[]> possiblePawnPositions;
+    // Side of the pawn, in the orientation of the prototype (NESW, 4 for the
+    // abbey), NO_PAWN if there is no pawn. Only one pawn per tile can be placed.
+    private int pawnSide = NO_PAWN;
+
+    // Position of the pawn on its side. If the side has a path, the position is 0,
+    // 1 or 2 (left of the path, path, right of the path, looking from the center of
+    // the tile), otherwise it is 0.
+    private int pawnPosition;
 
     public TileCarcassonne(int tileId) {
-        id = tileId;
-        initSidesWithIntegerId(tileId);
-        initPossiblePawnPositions();
+        this(TileCarcassonnePrototype.get(tileId), 0, null);
     }
 
-    private TileCarcassonne(SideCarcassonne[] tab, PlayerCarcassonne player, boolean hasAbbey) {
+    private TileCarcassonne(TileCarcassonnePrototype prototype, int nbOfRotations, PlayerCarcassonne player) {
+        this.prototype = prototype;
+        this.nbOfRotations = nbOfRotations;
         this.player = player;
-        this.hasAbbey = hasAbbey;
 
-        if (validSides(tab)) {
-            sides = tab;
-        } else {
-            throw new IllegalArgumentException("The array is not valid");
-        }
-        initPossiblePawnPositions();
+        id = prototype.getId();
+        sides = prototype.getSides(nbOfRotations);
     }
 
     public int getNbOfRotations() {
@@ -56,36 +64,89 @@ public class TileCarcassonne extends Tile<SideCarcassonne> {
     }
 
     public boolean hasAbbey() {
-        return hasAbbey;
+        return prototype.hasAbbey();
+    }
+
+    /**
+     * Returns the shared prototype of the type of the tile.
+     * 
+     * @return The prototype of the tile
+     */
+    public TileCarcassonnePrototype getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Returns a new array of the sides of the tile.
+     */
+    @Override
+    public SideCarcassonne[] getSides() {
+        return sides.clone();
     }
 
     public Pair<SideSelector, Integer> getPawnPosition() {
-        for (int i = 0; i < sides.length; i++) {
-            boolean[] side = possiblePawnPositions.get(i);
-            for (int j = 0; j < side.length; j++) {
-                if (side[j])
-                    return new Pair<>(SideSelector.values()[i], j);
-            }
-        }
-        if (possiblePawnPositions.size() == sides.length + 1 && possiblePawnPositions.get(sides.length)[0])
+        if (pawnSide == NO_PAWN)
+            return null;
+
+        if (pawnSide == 4)
             return new Pair<>(SideSelector.CENTER, 0);
 
-        return null;
+        return new Pair<>(SideSelector.values()[(pawnSide + nbOfRotations) % 4], pawnPosition);
+    }
+
+    /**
+     * Returns the mask of the spots of the tile where a pawn could be put, in its
+     * current orientation, whatever the other tiles: the position 0 of each side,
+     * the positions 1 and 2 of the roads and the center if there is an abbey.
+     * 
+     * @return The mask of the spots of the tile
+     */
+    public int getPawnSpots() {
+        return getPawnSpots(id, nbOfRotations);
     }
 
-    public Pair<SideSelector, Integer> getRandomPlacingPosition() {
+    /**
+     * Returns the index of the segment of the tile, see {@link TileSegments}, on
+     * which a pawn put on the spot {@code spot} would be.
+     * 
+     * @param spot The spot
+     * @return The index of the segment, -1 for the abbey
+     */
+    public int segmentOfSpot(int spot) {
+        return segmentOfSpot(id, nbOfRotations, spot);
+    }
+
+    /**
+     * Returns the spot of the pawn of the tile.
+     * 
+     * @return The spot of the pawn, -1 if there is no pawn
+     */
+    public int getPawnSpot() {
+        Pair<SideSelector, Integer> pawn = getPawnPosition();
+
+        return pawn == null ? NO_PAWN : toSpot(pawn.first, pawn.second);
+    }
+
+    /**
+     * Returns a random position for a pawn on the tile, chosen with
+     * {@code random}.
+     * 
+     * @param random The generator to use
+     * @return A side and a position on this side
+     */
+    public Pair<SideSelector, Integer> getRandomPlacingPosition(RandomGenerator random) {
         if (isPawnPlaced()) {
             throw new IllegalStateException("Pawn is already placed");
         }
 
-        int side = (int) (Math.random() * possiblePawnPositions.size());
+        int side = random.nextInt(hasAbbey() ? 5 : 4);
 
         int position;
 
-        if (possiblePawnPositions.get(side).length == 0) {
+        if (side == 4 || sides[side].getType() != Type.PATH) {
             position = 0;
         } else {
-            position = (int) (Math.random() * possiblePawnPositions.get(side).length);
+            position = random.nextInt(3);
         }
 
         return new Pair<>(SideSelector.values()[side], position);
@@ -95,73 +156,95 @@ public class TileCarcassonne extends Tile<SideCarcassonne> {
         this.player = player;
     }
 
-    private void initPossiblePawnPositions() {
-        possiblePawnPositions = new ArrayList<>();
-        for (SideCarcassonne side : sides) {
-            if (side.getType() == SideCarcassonne.Type.PATH) {
-                possiblePawnPositions.add(new boolean[] { false, false, false });
-            } else {
-                possiblePawnPositions.add(new boolean[] { false });
-            }
-        }
-
-        if (hasAbbey) {
-            possiblePawnPositions.add(new boolean[] { false });
-        }
-    }
-
     public boolean isPawnPlaced() {
-        for (boolean[] tab : possiblePawnPositions) {
-            for (boolean b : tab) {
-                if (b) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return pawnSide != NO_PAWN;
     }
 
     public void placePawn(SideSelector side) {
         placePawn(side, 0);
     }
 
+    /**
+     * Places a pawn on the spot {@code spot}, see {@link #getPawnSpots()}.
+     * 
+     * @param spot The spot
+     */
+    public void placePawn(int spot) {
+        Pair<SideSelector, Integer> position = fromSpot(spot);
+        placePawn(position.first, position.second);
+    }
+
     public void placePawn(SideSelector side, int position) {
         if (isPawnPlaced())
             throw new IllegalStateException("A pawn is already placed on this tile");
 
         if (side == SideSelector.CENTER) {
-            handleAbbeyPlacement(side);
+            handleAbbeyPlacement();
         } else {
             handleSidePlacement(side, position);
         }
     }
 
-    private void handleAbbeyPlacement(SideSelector side) {
-        if (!hasAbbey)
+    private void handleAbbeyPlacement() {
+        if (!hasAbbey())
             throw new IllegalStateException("The tile does not have an abbey");
 
-        possiblePawnPositions.get(sideSelectorToInt(side))[0] = true;
+        pawnSide = 4;
+        pawnPosition = 0;
         player.decreaseRemainingPawns();
     }
 
     private void handleSidePlacement(SideSelector side, int position) {
-        if (position != 0 && getSide(sideSelectorToDirection(side)).getType() != Type.PATH) {
+        boolean isPath = getSide(sideSelectorToDirection(side)).getType() == Type.PATH;
+
+        if (position != 0 && !isPath) {
             position = 0;
         }
 
-        if (position < 0 || position >= possiblePawnPositions.get(sideSelectorToInt(side)).length)
+        if (position < 0 || position >= (isPath ? 3 : 1))
             throw new IllegalArgumentException("Position must be between 0 and 2");
 
-        possiblePawnPositions.get(sideSelectorToInt(side))[position] = true;
+        // The pawn is stored in the orientation of the prototype, so it turns with
+        // the tile
+        pawnSide = (sideSelectorToInt(side) - nbOfRotations + 4) % 4;
+        pawnPosition = position;
         player.decreaseRemainingPawns();
 
     }
 
+    /**
+     * Removes the pawn of the tile and gives it back to the player who placed it.
+     */
+    public void removePawn() {
+        if (!isPawnPlaced())
+            throw new IllegalStateException("There is no pawn on this tile");
+
+        pawnSide = NO_PAWN;
+        pawnPosition = 0;
+        player.increaseRemainingPawns();
+    }
+
     @Override
     public boolean doesSideMatch(SideCarcassonne side, Direction direction) {
         return sides[Placeable.directionToInt(direction)].hasSameType(side);
     }
 
+    /**
+     * Answers with a lookup in the {@link PlacementTable}.
+     */
+    @Override
+    public boolean canBePlaced(Placeable<SideCarcassonne>[] neighbors) {
+        return PlacementTable.fits(PlacementTable.pattern(neighbors), id, nbOfRotations);
+    }
+
+    /**
+     * Answers with a lookup in the {@link PlacementTable}, the tile is not turned.
+     */
+    @Override
+    public boolean canBePlacedWithRotation(Placeable<SideCarcassonne>[] neighbors) {
+        return PlacementTable.fittingRotations(PlacementTable.pattern(neighbors), id) != 0;
+    }
+
     @Override
     public boolean validSides(SideCarcassonne[] tab) {
         if (tab.length != 4) {
@@ -177,9 +260,10 @@ public class TileCarcassonne extends Tile<SideCarcassonne> {
 
     @Override
     public TileCarcassonne copy() {
-        return new TileCarcassonne(
-                new SideCarcassonne[] { sides[0].copy(), sides[1].copy(), sides[2].copy(), sides[3].copy() },
-                player, hasAbbey);
+        TileCarcassonne copy = new TileCarcassonne(prototype, nbOfRotations, player);
+        copy.pawnSide = pawnSide;
+        copy.pawnPosition = pawnPosition;
+        return copy;
     }
 
     @Override
@@ -187,23 +271,8 @@ public class TileCarcassonne extends Tile<SideCarcassonne> {
         if (isPlaced)
             throw new UnableToTurnException();
 
-        n = n % sides.length;
-
-        for (int i = 0; i < n; i++) {
-            SideCarcassonne last = sides[sides.length - 1];
-            boolean[] lastPawnPosition = possiblePawnPositions.get(sides.length - 1);
-
-            for (int j = sides.length - 1; j > 0; j--) {
-                sides[j] = sides[j - 1];
-                possiblePawnPositions.set(j, possiblePawnPositions.get(j - 1));
-            }
-
-            sides[0] = last;
-            possiblePawnPositions.set(0, lastPawnPosition);
-        }
-
-        nbOfRotations += n;
-        nbOfRotations = (nbOfRotations + sides.length) % sides.length;
+        nbOfRotations = Math.floorMod(nbOfRotations + n, 4);
+        sides = prototype.getSides(nbOfRotations);
     }
 
     @Override
@@ -212,23 +281,87 @@ public class TileCarcassonne extends Tile<SideCarcassonne> {
             throw new UnableToTurnException();
         }
 
-        n = n % sides.length;
+        nbOfRotations = Math.floorMod(nbOfRotations - n, 4);
+        sides = prototype.getSides(nbOfRotations);
+    }
 
-        for (int i = 0; i < n; i++) {
-            int j;
-            SideCarcassonne first = sides[0];
-            boolean[] firstPawnPosition = possiblePawnPositions.get(0);
+    /**
+     * Returns the mask of the spots of the type {@code type} turned
+     * {@code rotation} times to the right, see {@link #getPawnSpots()}. It does
+     * not need a tile, so the spots of every rotation can be known without
+     * turning the tile to place.
+     * 
+     * @param type     The type of the tile
+     * @param rotation The number of rotations to the right, between 0 and 3
+     * @return The mask of the spots
+     */
+    public static int getPawnSpots(int type, int rotation) {
+        TileCarcassonnePrototype prototype = TileCarcassonnePrototype.get(type);
+        int spots = prototype.hasAbbey() ? 1 << CENTER_SPOT : 0;
+
+        for (int d = 0; d < 4; d++) {
+            spots |= (prototype.getSideType(rotation, d) == Type.PATH ? 0b111 : 0b1) << (3 * d);
+        }
 
-            for (j = 0; j < sides.length - 1; j++) {
-                sides[j] = sides[j + 1];
-                possiblePawnPositions.set(j, possiblePawnPositions.get(j + 1));
-            }
+        return spots;
+    }
 
-            sides[j] = first;
-            possiblePawnPositions.set(j, firstPawnPosition);
-        }
-        nbOfRotations -= n;
-        nbOfRotations = (nbOfRotations + sides.length) % sides.length;
+    /**
+     * Returns the index of the segment of the type {@code type} turned
+     * {@code rotation} times to the right on which a pawn put on the spot
+     * {@code spot} would be.
+     * 
+     * @param type     The type of the tile
+     * @param rotation The number of rotations to the right, between 0 and 3
+     * @param spot     The spot
+     * @return The index of the segment, -1 for the abbey
+     */
+    public static int segmentOfSpot(int type, int rotation, int spot) {
+        if (spot == CENTER_SPOT)
+            return -1;
+
+        int direction = spot / 3;
+        int position = spot % 3;
+        Type sideType = TileCarcassonnePrototype.get(type).getSideType(rotation, direction);
+
+        if (sideType == Type.PATH && position == 1)
+            return TileSegments.segmentOfSide(type, rotation, direction);
+
+        if (sideType == Type.CITY)
+            return TileSegments.segmentOfSide(type, rotation, direction);
+
+        // The meadows are on the left and on the right of the roads
+        return TileSegments.segmentOfPort(type, rotation, TileSegments.port(direction, position == 2 ? 1 : 0));
+    }
+
+    /**
+     * Returns the spot of the position {@code position} of the side {@code side}.
+     * 
+     * @param side     The side, CENTER for the abbey
+     * @param position The position on the side
+     * @return The spot
+     */
+    public static int toSpot(SideSelector side, int position) {
+        if (side == SideSelector.CENTER)
+            return CENTER_SPOT;
+
+        return 3 * sideSelectorToInt(side) + position;
+    }
+
+    /**
+     * Returns the side and the position of the spot {@code spot}.
+     * 
+     * @param spot The spot
+     * @return The side and the position on this side
+     */
+    public static Pair<SideSelector, Integer> fromSpot(int spot) {
+        if (spot < 0 || spot >= NB_PAWN_SPOTS)
+            throw new IllegalArgumentException("The spot must be between 0 and " + (NB_PAWN_SPOTS - 1));
+
+        if (spot == CENTER_SPOT)
+            return new Pair<>(SideSelector.CENTER, 0);
+
+        return new Pair<>(intToSideSelector(spot / 3), spot % 3);
     }
 
     public static int sideSelectorToInt(SideSelector side) {
@@ -295,111 +428,6 @@ public class TileCarcassonne extends Tile<SideCarcassonne> {
         }
     }
 
-    public void initSidesWithIntegerId(int tileId) {
-        switch (tileId) {
-            case 0:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.MEADOW),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.PATH) };
-                break;
-            case 1:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.PATH),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.MEADOW) };
-                break;
-            case 2:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.PATH),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.CITY) };
-                break;
-            case 3:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.CITY),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.CITY) };
-                break;
-            case 4:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.CITY),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.CITY) };
-                break;
-            case 5:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.PATH),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.CITY) };
-                break;
-            case 6:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.PATH),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.PATH) };
-                break;
-            case 7:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.MEADOW),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.MEADOW) };
-                break;
-            case 8:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.PATH),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.PATH) };
-                break;
-            case 9:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.MEADOW),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.MEADOW) };
-                break;
-            case 10:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.CITY),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.MEADOW) };
-                break;
-
-            case 11:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.CITY),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.CITY) };
-                break;
-            case 12:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.MEADOW),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.MEADOW) };
-                hasAbbey = true;
-                break;
-            case 13:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.MEADOW),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.MEADOW) };
-                hasAbbey = true;
-                break;
-            case 14:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.MEADOW),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.CITY) };
-                break;
-            case 15:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.CITY),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.CITY) };
-                break;
-            case 16:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.PATH),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.PATH) };
-                break;
-            case 17:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.MEADOW),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.PATH) };
-                break;
-            case 18:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.CITY),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.CITY) };
-                break;
-            case 19:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.CITY),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.CITY) };
-                break;
-            case 20:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.CITY),
-                        new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.CITY) };
-                break;
-            case 21:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.PATH),
-                        new SideCarcassonne(Type.PATH), new SideCarcassonne(Type.PATH) };
-                break;
-            case 22:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.CITY), new SideCarcassonne(Type.MEADOW),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.CITY) };
-                break;
-            case 23:
-                sides = new SideCarcassonne[] { new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.CITY),
-                        new SideCarcassonne(Type.MEADOW), new SideCarcassonne(Type.CITY) };
-                break;
-            default:
-        }
-    }
-
     public String toString() {
         String s = "";
         for (int i = 0; i < 4; i++) {
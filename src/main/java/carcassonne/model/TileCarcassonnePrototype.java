@@ -0,0 +1,155 @@
+package carcassonne.model;
+
+import carcassonne.model.SideCarcassonne.Type;
+
+/**
+ * Immutable description of one of the 24 types of tiles of Carcassonne. The
+ * prototypes are shared by all the tiles of the same type and contain the sides
+ * of the type for each of the 4 rotations, so a tile only has to remember its
+ * prototype and its rotation.
+ */
+public final class TileCarcassonnePrototype {
+
+    public static final int NB_TYPES = 24; // Number of types of tiles
+
+    private static final TileCarcassonnePrototype[] PROTOTYPES = new TileCarcassonnePrototype[NB_TYPES];
+
+    static {
+        for (int i = 0; i < NB_TYPES; i++) {
+            PROTOTYPES[i] = new TileCarcassonnePrototype(i);
+        }
+    }
+
+    private final int id;
+
+    private final boolean hasAbbey;
+
+    // sides[r] are the sides of the tile turned r times to the right, in the order
+    // NESW
+    private final SideCarcassonne[][] sides = new SideCarcassonne[4][];
+
+    // Constructor
+
+    private TileCarcassonnePrototype(int id) {
+        this.id = id;
+
+        sides[0] = initSides(id);
+        // The abbeys are on the tiles 12 and 13
+        hasAbbey = id == 12 || id == 13;
+        for (int r = 1; r < 4; r++) {
+            sides[r] = new SideCarcassonne[4];
+            for (int d = 0; d < 4; d++) {
+                // Turning right once moves the side d to d + 1
+                sides[r][(d + 1) % 4] = sides[r - 1][d];
+            }
+        }
+    }
+
+    // Getters
+
+    /**
+     * Returns the prototype of the tiles of type {@code id}.
+     *
+     * @param id The type of the tile, between 0 and {@code NB_TYPES - 1}
+     * @return The prototype of the type
+     */
+    public static TileCarcassonnePrototype get(int id) {
+        if (id < 0 || id >= NB_TYPES)
+            throw new IllegalArgumentException("The id of the tile must be between 0 and " + (NB_TYPES - 1));
+
+        return PROTOTYPES[id];
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean hasAbbey() {
+        return hasAbbey;
+    }
+
+    /**
+     * Returns the sides of the type turned {@code rotation} times to the right, in
+     * the order NESW. The array is shared and must not be modified.
+     *
+     * @param rotation The number of rotations to the right, between 0 and 3
+     * @return The sides of the type
+     */
+    SideCarcassonne[] getSides(int rotation) {
+        return sides[rotation];
+    }
+
+    /**
+     * Returns the type of the side in the direction {@code direction} of the type
+     * turned {@code rotation} times to the right.
+     *
+     * @param rotation  The number of rotations to the right, between 0 and 3
+     * @param direction The direction of the side, between 0 and 3 (NESW)
+     * @return The type of the side
+     */
+    public Type getSideType(int rotation, int direction) {
+        return sides[rotation][direction].getType();
+    }
+
+    // Methods
+
+    private static SideCarcassonne[] initSides(int tileId) {
+        switch (tileId) {
+            case 0:
+                return sides(Type.MEADOW, Type.MEADOW, Type.PATH, Type.PATH);
+            case 1:
+                return sides(Type.CITY, Type.PATH, Type.PATH, Type.MEADOW);
+            case 2:
+                return sides(Type.CITY, Type.PATH, Type.PATH, Type.CITY);
+            case 3:
+                return sides(Type.CITY, Type.CITY, Type.PATH, Type.CITY);
+            case 4:
+                return sides(Type.CITY, Type.CITY, Type.MEADOW, Type.CITY);
+            case 5:
+                return sides(Type.CITY, Type.PATH, Type.PATH, Type.CITY);
+            case 6:
+                return sides(Type.CITY, Type.PATH, Type.PATH, Type.PATH);
+            case 7:
+                return sides(Type.PATH, Type.MEADOW, Type.PATH, Type.MEADOW);
+            case 8:
+                return sides(Type.MEADOW, Type.PATH, Type.PATH, Type.PATH);
+            case 9:
+                return sides(Type.CITY, Type.MEADOW, Type.MEADOW, Type.MEADOW);
+            case 10:
+                return sides(Type.CITY, Type.CITY, Type.MEADOW, Type.MEADOW);
+            case 11:
+                return sides(Type.CITY, Type.CITY, Type.MEADOW, Type.CITY);
+            case 12:
+                return sides(Type.MEADOW, Type.MEADOW, Type.MEADOW, Type.MEADOW);
+            case 13:
+                return sides(Type.MEADOW, Type.MEADOW, Type.PATH, Type.MEADOW);
+            case 14:
+                return sides(Type.CITY, Type.MEADOW, Type.MEADOW, Type.CITY);
+            case 15:
+                return sides(Type.MEADOW, Type.CITY, Type.MEADOW, Type.CITY);
+            case 16:
+                return sides(Type.CITY, Type.PATH, Type.MEADOW, Type.PATH);
+            case 17:
+                return sides(Type.CITY, Type.MEADOW, Type.PATH, Type.PATH);
+            case 18:
+                return sides(Type.MEADOW, Type.CITY, Type.MEADOW, Type.CITY);
+            case 19:
+                return sides(Type.CITY, Type.CITY, Type.PATH, Type.CITY);
+            case 20:
+                return sides(Type.CITY, Type.CITY, Type.CITY, Type.CITY);
+            case 21:
+                return sides(Type.PATH, Type.PATH, Type.PATH, Type.PATH);
+            case 22:
+                return sides(Type.CITY, Type.MEADOW, Type.MEADOW, Type.CITY);
+            case 23:
+                return sides(Type.MEADOW, Type.CITY, Type.MEADOW, Type.CITY);
+            default:
+                throw new IllegalArgumentException("Unknown tile id: " + tileId);
+        }
+    }
+
+    private static SideCarcassonne[] sides(Type north, Type east, Type south, Type west) {
+        return new SideCarcassonne[] { SideCarcassonne.of(north), SideCarcassonne.of(east),
+                SideCarcassonne.of(south), SideCarcassonne.of(west) };
+    }
+}
@@ -0,0 +1,381 @@
+package carcassonne.model;
+
+import java.util.Arrays;
+
+import carcassonne.model.SideCarcassonne.Type;
+
+/**
+ * Connectivity of the 24 types of tiles of Carcassonne, precomputed for the 4
+ * rotations.
+ *
+ * <p>
+ * A tile is cut in segments: each city, road and meadow drawn on it. A city or
+ * a road segment is described by the mask of the sides it touches (bit
+ * {@code d} for the direction {@code d}, NESW). A meadow segment is described by
+ * the mask of the half-sides, or ports, it touches: the port {@code 2d} is the
+ * left half of the side {@code d} and the port {@code 2d + 1} its right half,
+ * looking from the center of the tile. The ports are then numbered clockwise
+ * from the left half of the north side.
+ * </p>
+ *
+ * <p>
+ * A segment is encoded in an {@code int}: the ordinal of its type from the bit
+ * 8 and its mask in the 8 lower bits.
+ * </p>
+ */
+public final class TileSegments {
+
+    public static final int NB_PORTS = 8; // Number of half-sides of a tile
+
+    private static final int MASK = 0xFF;
+    private static final int TYPE_SHIFT = 8;
+
+    private static final int NB_TYPES = TileCarcassonnePrototype.NB_TYPES;
+
+    // SEGMENTS[type * 4 + rotation] are the segments of the type turned rotation
+    // times to the right
+    private static final int[][] SEGMENTS = new int[NB_TYPES * 4][];
+
+    // Index of the segment of each side (-1 for a meadow) and of each port (-1 for
+    // a city)
+    private static final byte[][] SIDE_SEGMENT = new byte[NB_TYPES * 4][4];
+    private static final byte[][] PORT_SEGMENT = new byte[NB_TYPES * 4][NB_PORTS];
+
+    // Mask of the indexes of the city segments each meadow segment touches (0 for
+    // the cities and the roads)
+    private static final int[][] ADJACENT_CITIES = new int[NB_TYPES * 4][];
+
+    // Mask of the rotations of each type which give different tiles, the bit r
+    // standing for r rotations to the right: a rotation is left out if an
+    // earlier one has the same segments
+    private static final byte[] DISTINCT_ROTATIONS = new byte[NB_TYPES];
+
+    static {
+        for (int type = 0; type < NB_TYPES; type++) {
+            int[] segments = initSegments(type);
+
+            for (int rotation = 0; rotation < 4; rotation++) {
+                int[] rotated = new int[segments.length];
+                for (int i = 0; i < segments.length; i++) {
+                    rotated[i] = rotate(segments[i], rotation);
+                }
+
+                int index = type * 4 + rotation;
+                SEGMENTS[index] = rotated;
+                fillIndexes(index, rotated);
+                fillAdjacentCities(index, rotated);
+                check(type, rotation, index);
+            }
+
+            DISTINCT_ROTATIONS[type] = (byte) distinctRotations(type);
+        }
+    }
+
+    private TileSegments() {
+    }
+
+    private static int[] initSegments(int type) {
+        // Sides
+        final int n = 1;
+        final int e = 2;
+        final int s = 4;
+        final int w = 8;
+
+        // Ports (north-west, north-east, east-north...)
+        final int nw = 1;
+        final int ne = 2;
+        final int en = 4;
+        final int es = 8;
+        final int se = 16;
+        final int sw = 32;
+        final int ws = 64;
+        final int wn = 128;
+
+        switch (type) {
+            case 0:
+                return new int[] { road(s | w), meadow(sw | ws), meadow(nw | ne | en | es | se | wn) };
+            case 1:
+                return new int[] { city(n), road(e | s), meadow(es | se), meadow(en | sw | ws | wn) };
+            case 2:
+            case 5:
+                return new int[] { city(n | w), road(e | s), meadow(es | se), meadow(en | sw) };
+            case 3:
+            case 19:
+                return new int[] { city(n | e | w), road(s), meadow(se), meadow(sw) };
+            case 4:
+            case 11:
+                return new int[] { city(n | e | w), meadow(se | sw) };
+            case 6:
+                return new int[] { city(n), road(e), road(s), road(w), meadow(en | wn), meadow(es | se),
+                        meadow(sw | ws) };
+            case 7:
+                return new int[] { road(n | s), meadow(ne | en | es | se), meadow(nw | sw | ws | wn) };
+            case 8:
+                return new int[] { road(e), road(s), road(w), meadow(nw | ne | en | wn), meadow(es | se),
+                        meadow(sw | ws) };
+            case 9:
+                return new int[] { city(n), meadow(en | es | se | sw | ws | wn) };
+            case 10:
+                return new int[] { city(n), city(e), meadow(se | sw | ws | wn) };
+            case 12:
+                return new int[] { meadow(MASK) };
+            case 13:
+                // The road ends at the abbey, the meadow goes around it
+                return new int[] { road(s), meadow(MASK) };
+            case 14:
+            case 22:
+                return new int[] { city(n | w), meadow(en | es | se | sw) };
+            case 15:
+            case 18:
+                return new int[] { city(e | w), meadow(nw | ne), meadow(se | sw) };
+            case 16:
+                return new int[] { city(n), road(e | w), meadow(en | wn), meadow(es | se | sw | ws) };
+            case 17:
+                return new int[] { city(n), road(s | w), meadow(sw | ws), meadow(en | es | se | wn) };
+            case 20:
+                return new int[] { city(n | e | s | w) };
+            case 21:
+                return new int[] { road(n), road(e), road(s), road(w), meadow(ne | en), meadow(es | se),
+                        meadow(sw | ws), meadow(wn | nw) };
+            case 23:
+                return new int[] { city(e), city(w), meadow(nw | ne | se | sw) };
+            default:
+                throw new IllegalArgumentException("Unknown tile id: " + type);
+        }
+    }
+
+    private static int city(int sides) {
+        return (Type.CITY.ordinal() << TYPE_SHIFT) | sides;
+    }
+
+    private static int road(int sides) {
+        return (Type.PATH.ordinal() << TYPE_SHIFT) | sides;
+    }
+
+    private static int meadow(int ports) {
+        return (Type.MEADOW.ordinal() << TYPE_SHIFT) | ports;
+    }
+
+    /**
+     * Turns the segment {@code segment} {@code rotation} times to the right: the
+     * side {@code d} goes to {@code d + 1} and the port {@code p} to {@code p + 2}.
+     */
+    private static int rotate(int segment, int rotation) {
+        int mask = getMask(segment);
+        int rotated;
+
+        if (getType(segment) == Type.MEADOW) {
+            rotated = ((mask << (2 * rotation)) | (mask >>> (NB_PORTS - 2 * rotation))) & MASK;
+        } else {
+            rotated = ((mask << rotation) | (mask >>> (4 - rotation))) & 0b1111;
+        }
+
+        return (segment & ~MASK) | rotated;
+    }
+
+    private static void fillIndexes(int index, int[] segments) {
+        Arrays.fill(SIDE_SEGMENT[index], (byte) -1);
+        Arrays.fill(PORT_SEGMENT[index], (byte) -1);
+
+        for (int i = 0; i < segments.length; i++) {
+            int mask = getMask(segments[i]);
+
+            if (getType(segments[i]) == Type.MEADOW) {
+                for (int p = 0; p < NB_PORTS; p++) {
+                    if ((mask & (1 << p)) != 0)
+                        PORT_SEGMENT[index][p] = (byte) i;
+                }
+            } else {
+                for (int d = 0; d < 4; d++) {
+                    if ((mask & (1 << d)) != 0)
+                        SIDE_SEGMENT[index][d] = (byte) i;
+                }
+            }
+        }
+    }
+
+    /**
+     * A meadow touches a city of its tile if it has one of the two ports around a
+     * side of the city: the port just before the side or the port just after it,
+     * turning clockwise.
+     */
+    private static void fillAdjacentCities(int index, int[] segments) {
+        ADJACENT_CITIES[index] = new int[segments.length];
+
+        for (int d = 0; d < 4; d++) {
+            int city = SIDE_SEGMENT[index][d];
+            if (city < 0 || getType(segments[city]) != Type.CITY)
+                continue;
+
+            int[] ports = { (2 * d + NB_PORTS - 1) % NB_PORTS, (2 * d + 2) % NB_PORTS };
+            for (int port : ports) {
+                int meadow = PORT_SEGMENT[index][port];
+                if (meadow >= 0)
+                    ADJACENT_CITIES[index][meadow] |= 1 << city;
+            }
+        }
+    }
+
+    /**
+     * Returns the mask of the rotations of the type {@code type} whose sorted
+     * segments differ from the ones of every earlier rotation.
+     */
+    private static int distinctRotations(int type) {
+        int[][] sorted = new int[4][];
+        int rotations = 0;
+
+        for (int rotation = 0; rotation < 4; rotation++) {
+            sorted[rotation] = SEGMENTS[type * 4 + rotation].clone();
+            Arrays.sort(sorted[rotation]);
+
+            boolean isNew = true;
+            for (int previous = 0; previous < rotation && isNew; previous++) {
+                isNew = !Arrays.equals(sorted[previous], sorted[rotation]);
+            }
+
+            if (isNew)
+                rotations |= 1 << rotation;
+        }
+
+        return rotations;
+    }
+
+    /**
+     * Checks that the segments agree with the sides of the prototype: a city side
+     * belongs to a city, a road side to a road and the ports of the meadow and road
+     * sides to a meadow.
+     */
+    private static void check(int type, int rotation, int index) {
+        TileCarcassonnePrototype prototype = TileCarcassonnePrototype.get(type);
+
+        for (int d = 0; d < 4; d++) {
+            Type sideType = prototype.getSideType(rotation, d);
+            int segment = SIDE_SEGMENT[index][d];
+            boolean hasMeadow = PORT_SEGMENT[index][2 * d] >= 0 && PORT_SEGMENT[index][2 * d + 1] >= 0;
+
+            boolean isValid;
+            if (sideType == Type.MEADOW)
+                isValid = segment < 0 && hasMeadow;
+            else
+                isValid = segment >= 0 && getType(SEGMENTS[index][segment]) == sideType
+                        && hasMeadow == (sideType == Type.PATH);
+
+            if (!isValid)
+                throw new IllegalStateException("The segments of the tile " + type + " do not match its sides");
+        }
+    }
+
+    // Getters
+
+    /**
+     * Returns the segments of the type {@code type} turned {@code rotation} times
+     * to the right. The array is shared and must not be modified.
+     *
+     * @param type     The type of the tile
+     * @param rotation The number of rotations to the right, between 0 and 3
+     * @return The segments of the tile
+     */
+    public static int[] getSegments(int type, int rotation) {
+        return SEGMENTS[type * 4 + rotation];
+    }
+
+    /**
+     * Returns the index of the city or road segment on the side
+     * {@code direction} of the type {@code type} turned {@code rotation} times to
+     * the right.
+     *
+     * @param type      The type of the tile
+     * @param rotation  The number of rotations to the right, between 0 and 3
+     * @param direction The direction of the side, between 0 and 3 (NESW)
+     * @return The index of the segment in {@link #getSegments(int, int)}, -1 if the
+     *         side is a meadow
+     */
+    public static int segmentOfSide(int type, int rotation, int direction) {
+        return SIDE_SEGMENT[type * 4 + rotation][direction];
+    }
+
+    /**
+     * Returns the index of the meadow segment on the port {@code port} of the
+     * type {@code type} turned {@code rotation} times to the right.
+     *
+     * @param type     The type of the tile
+     * @param rotation The number of rotations to the right, between 0 and 3
+     * @param port     The port, between 0 and 7
+     * @return The index of the segment in {@link #getSegments(int, int)}, -1 if the
+     *         port is on a city
+     */
+    public static int segmentOfPort(int type, int rotation, int port) {
+        return PORT_SEGMENT[type * 4 + rotation][port];
+    }
+
+    /**
+     * Returns the mask of the indexes of the city segments touched by the meadow
+     * segment {@code segment} of the type {@code type} turned {@code rotation}
+     * times to the right.
+     *
+     * @param type     The type of the tile
+     * @param rotation The number of rotations to the right, between 0 and 3
+     * @param segment  The index of the segment
+     * @return The mask of the cities, 0 if the segment is not a meadow
+     */
+    public static int getAdjacentCities(int type, int rotation, int segment) {
+        return ADJACENT_CITIES[type * 4 + rotation][segment];
+    }
+
+    /**
+     * Returns the mask of the rotations of the type {@code type} which give
+     * different tiles. The rotations of a symmetric type, like the city of the
+     * type 20 or the crossroads of the type 21, have the same segments, so only
+     * the first one of them is in the mask.
+     *
+     * @param type The type of the tile
+     * @return The mask of the distinct rotations, the bit {@code r} standing for
+     *         {@code r} rotations to the right
+     */
+    public static int getDistinctRotations(int type) {
+        return DISTINCT_ROTATIONS[type];
+    }
+
+    public static Type getType(int segment) {
+        return Type.values()[segment >>> TYPE_SHIFT];
+    }
+
+    /**
+     * Returns the mask of the sides of a city or road segment, or the mask of the
+     * ports of a meadow segment.
+     *
+     * @param segment The segment
+     * @return The mask of the segment
+     */
+    public static int getMask(int segment) {
+        return segment & MASK;
+    }
+
+    // Methods
+
+    /**
+     * Returns the port of the half {@code half} of the side {@code direction}.
+     *
+     * @param direction The direction of the side, between 0 and 3 (NESW)
+     * @param half      0 for the left half, 1 for the right half, looking from the
+     *                  center of the tile
+     * @return The port
+     */
+    public static int port(int direction, int half) {
+        return 2 * direction + half;
+    }
+
+    /**
+     * Returns the port of the neighboring tile which touches the port
+     * {@code port}. The left half of a side touches the right half of the side
+     * facing it.
+     *
+     * @param port The port
+     * @return The port of the neighbor
+     */
+    public static int oppositePort(int port) {
+        int direction = port / 2;
+        int half = port % 2;
+        return port((direction + 2) % 4, 1 - half);
+    }
+}
@@ -1,7 +1,5 @@
 package carcassonne.view;
 
-import java.awt.EventQueue;
-
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -36,7 +34,7 @@ public class GameCarcassonnePanel extends GamePanel<SideCarcassonne, TileCarcass
         updateView();
 
         if (gameModel.getCurrentPlayer() instanceof BotCarcassonne) {
-            EventQueue.invokeLater(this::updateBot);
+            updateBot();
         }
     }
 
@@ -54,7 +52,9 @@ public class GameCarcassonnePanel extends GamePanel<SideCarcassonne, TileCarcass
         infoScreenLabel = new JLabel(infoMessage);
 
         tileToPlace = new TileCarcassonnePanel(gameModel.getTileToPlace());
-        tileToPlace.setCanPawnBePlaced(((PlayerCarcassonne) gameModel.getCurrentPlayer()).getRemainingPawns() > 0);
+        // The pawn of a bot is put by the bot
+        tileToPlace.setLegalPawnSpots(gameModel.getCurrentPlayer() instanceof BotCarcassonne ? 0
+                : ((GameCarcassonne) gameModel).getPossiblePawnSpots());
 
         super.init();
 
@@ -110,24 +110,35 @@ public class GameCarcassonnePanel extends GamePanel<SideCarcassonne, TileCarcass
         }
     }
 
+    /**
+     * Schedules the turn of the current player, a bot: its move is computed by the
+     * scheduler, then played by {@link #playBotMove(BotCarcassonne, Long)} on the
+     * event dispatch thread.
+     */
     private void updateBot() {
         BotCarcassonne bot = (BotCarcassonne) gameModel.getCurrentPlayer();
+        GameCarcassonne game = (GameCarcassonne) gameModel;
 
-        String message;
-        try {
-            bot.play((GameCarcassonne) gameModel);
-            message = "Bot " + bot.getName() + " has placed a tile.";
+        infoScreenLabel.setText("Bot " + bot.getName() + " is playing.");
 
-        } catch (Exception e) {
-            message = ("Bot " + bot.getName() + " has passed.");
-        }
+        scheduler.schedule(() -> chooseBotMove(game, bot), move -> playBotMove(bot, move));
+    }
 
-        JOptionPane.showMessageDialog(this, message, "", JOptionPane.INFORMATION_MESSAGE);
+    private void playBotMove(BotCarcassonne bot, Long move) {
+        String message = "Bot " + bot.getName() + " has passed.";
 
-        revalidate();
-        repaint();
+        if (move != null) {
+            try {
+                bot.playMove((GameCarcassonne) gameModel, move);
+                message = "Bot " + bot.getName() + " has placed a tile.";
+            } catch (Exception e) {
+                // The bot passes
+            }
+        }
 
         updateGameRound();
+
+        infoScreenLabel.setText(message);
     }
 
     @Override
@@ -143,6 +154,9 @@ public class GameCarcassonnePanel extends GamePanel<SideCarcassonne, TileCarcass
 
     @Override
     protected void pass() {
+        if (scheduler.isBusy())
+            return;
+
         if (gameModel.findPossiblePlacements().isEmpty()) {
             updateGameRound();
         } else {
@@ -154,6 +168,11 @@ public class GameCarcassonnePanel extends GamePanel<SideCarcassonne, TileCarcass
 
     @Override
     protected void endGame() {
+        scheduler.shutdown();
+
+        // Scores the last turn and the features which are not complete
+        gameModel.endGame();
+
         EndMenuCarcassonne endMenu = new EndMenuCarcassonne(homeMenu, frame);
         frame.setContentPane(endMenu);
         frame.revalidate();
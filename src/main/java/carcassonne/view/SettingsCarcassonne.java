@@ -1,8 +1,5 @@
 package carcassonne.view;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import javax.swing.JFrame;
 
 import carcassonne.model.BotCarcassonne;
@@ -51,16 +48,10 @@ public class SettingsCarcassonne extends Settings {
         public void generatePlayers() {
             players = new PlayerCarcassonne[totalNumberOfPlayers];
 
-            Set<String> botNames = new HashSet<>();
-
             for (int i = 0; i < totalNumberOfPlayers; i++) {
                 if (i < numberOfBots) {
-                    // Takes care of bot naming an duplicates
+                    // The bots are named by the game
                     players[i] = new BotCarcassonne(null);
-                    while (botNames.contains(players[i].getName())) {
-                        ((BotCarcassonne) players[i]).changeName();
-                    }
-                    botNames.add(players[i].getName());
                 } else {
                     players[i] = new PlayerCarcassonne(null);
                 }
@@ -36,7 +36,7 @@ public class TileCarcassonnePanel extends TilePanel<TileCarcassonne> {
 
     private int pathLength;
 
-    private boolean canPawnBePlaced;
+    private int legalPawnSpots; // Mask of the spots where a pawn can be placed
 
     public TileCarcassonnePanel(TileCarcassonne tileModel) {
         this.tileModel = tileModel;
@@ -57,8 +57,14 @@ public class TileCarcassonnePanel extends TilePanel<TileCarcassonne> {
         return new Dimension(125, 125);
     }
 
-    public void setCanPawnBePlaced(boolean canPawnBePlaced) {
-        this.canPawnBePlaced = canPawnBePlaced;
+    /**
+     * Sets the spots of the tile where a pawn can be placed, see
+     * {@link TileCarcassonne#getPawnSpots()}.
+     * 
+     * @param legalPawnSpots The mask of the spots
+     */
+    public void setLegalPawnSpots(int legalPawnSpots) {
+        this.legalPawnSpots = legalPawnSpots;
     }
 
     private void init() {
@@ -88,7 +94,7 @@ public class TileCarcassonnePanel extends TilePanel<TileCarcassonne> {
         pathLength = getWidth() / 3;
         Point click = new Point(x, y);
 
-        if (!canPawnBePlaced || tileModel.isPawnPlaced() || isOutOfBounds(click))
+        if (legalPawnSpots == 0 || tileModel.isPawnPlaced() || isOutOfBounds(click))
             return;
 
         if (tileModel.hasAbbey()) {
@@ -117,10 +123,8 @@ public class TileCarcassonnePanel extends TilePanel<TileCarcassonne> {
         Square abbeyBoundingBox = new Square(new Point(abbeySize / 2, abbeySize / 2),
                 new Point((3 * abbeySize) / 2, (3 * abbeySize) / 2));
 
-        if (abbeyBoundingBox.isInside(click)) {
-            tileModel.placePawn(SideSelector.CENTER, 0);
-            drawPawn();
-        }
+        if (abbeyBoundingBox.isInside(click))
+            placePawn(SideSelector.CENTER, 0);
     }
 
     private int computeAbbeySize() {
@@ -147,8 +151,7 @@ public class TileCarcassonnePanel extends TilePanel<TileCarcassonne> {
         Triangle lefBoundingBox = boundingBoxHandler.leftBoundingBoxFromDirection();
 
         if (tileModel.getSide(direction).getType() != Type.PATH || lefBoundingBox.isInside(click)) {
-            tileModel.placePawn(selectedSide, 0);
-            drawPawn();
+            placePawn(selectedSide, 0);
             return;
         }
 
@@ -157,13 +160,23 @@ public class TileCarcassonnePanel extends TilePanel<TileCarcassonne> {
         Triangle rightBoundingBox = boundingBoxHandler.rightBoundingBoxFromDirection();
 
         if (rightBoundingBox.isInside(click)) {
-            tileModel.placePawn(selectedSide, 2);
-            drawPawn();
+            placePawn(selectedSide, 2);
             return;
         }
 
         // The tile is then in the path
-        tileModel.placePawn(selectedSide, 1);
+        placePawn(selectedSide, 1);
+    }
+
+    /**
+     * Places a pawn at the position {@code position} of the side {@code side} if
+     * it is one of the legal spots.
+     */
+    private void placePawn(SideSelector side, int position) {
+        if ((legalPawnSpots & (1 << TileCarcassonne.toSpot(side, position))) == 0)
+            return;
+
+        tileModel.placePawn(side, position);
         drawPawn();
     }
 
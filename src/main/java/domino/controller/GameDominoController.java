@@ -90,6 +90,13 @@ public class GameDominoController {
         }
 
         model = new GameDomino(players, nbTiles);
+
+        for (int i = 0; i < nbPlayers; i++) {
+            if (players[i] instanceof BotDomino) {
+                System.out.println("Player n°" + (i + 1) + " is the bot " + players[i].getName() + ".");
+            }
+        }
+
         view = new GameDominoView(model);
         parser = new GameDominoCommandParser(sc, model, view);
 
@@ -115,14 +122,9 @@ public class GameDominoController {
                 String playAgain = sc.nextLine();
 
                 if (playAgain.equalsIgnoreCase("yes") || playAgain.equalsIgnoreCase("y")) {
-                    BotDomino bot = new BotDomino();
-
-                    while (!checkName(players, bot)) {
-                        bot.changeName();
-                    }
-
-                    players[i - 1] = bot;
-                    System.out.println("Player n°" + i + " will be " + bot.getName() + ".");
+                    // The bot is named by the game, once every player is known
+                    players[i - 1] = new BotDomino();
+                    System.out.println("Player n°" + i + " will be a bot.");
                     isNameValid = true;
 
                 } else if (playAgain.equalsIgnoreCase("no") || playAgain.equalsIgnoreCase("n")) {
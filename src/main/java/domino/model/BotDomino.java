@@ -1,56 +1,74 @@
 package domino.model;
 
-import java.util.List;
-
 import exceptions.NoPossibleMovementsException;
 import exceptions.TileNotFoundException;
 import exceptions.UnableToTurnException;
-import utils.Pair;
+import interfaces.PlayerStrategy;
+import shared.model.MoveList;
 
-public class BotDomino extends PlayerDomino {
+public class BotDomino extends PlayerDomino implements PlayerStrategy<GameDomino> {
 
-    public BotDomino() {
-        super(botNames[(int) (Math.random() * botNames.length)]);
-    }
+    private final MoveList moves = new MoveList(); // Buffer for the moves
+    private final int[] rotations = new int[4]; // Packed sides of each rotation of the tile
 
-    public void changeName() {
-        name = botNames[(int) (Math.random() * botNames.length)];
+    /**
+     * Creates a bot, which is named by the game it joins, see
+     * {@link shared.model.Game#getRandomGenerator(shared.model.Player)}.
+     */
+    public BotDomino() {
+        super();
     }
 
     public void play(GameDomino model)
             throws TileNotFoundException, UnableToTurnException, NoPossibleMovementsException {
 
-        List<Pair<Integer, Integer>> possibleMoves = model.findPossiblePlacements();
-
-        if (possibleMoves.isEmpty())
+        if (model.generateMoves(moves) == 0)
             throw new NoPossibleMovementsException();
 
-        TileDomino tileToPlace = model.getTileToPlace().copy();
+        playMove(model, chooseMove(model, moves));
+    }
+
+    /**
+     * Plays {@code move} for the bot: the tile to place is turned and placed. The
+     * round is not updated.
+     * 
+     * @param model The game
+     * @param move  The packed move, see {@link MoveList}
+     * @throws TileNotFoundException If there is no tile to place
+     * @throws UnableToTurnException If the tile cannot be turned
+     */
+    public void playMove(GameDomino model, long move) throws TileNotFoundException, UnableToTurnException {
+        model.turn(true, MoveList.getRotation(move));
 
-        Pair<Integer, Integer> position = new Pair<>(-5, -5);
+        model.place(MoveList.getX(move), MoveList.getY(move), this);
+    }
+
+    /**
+     * Chooses the move which gives the most points.
+     */
+    @Override
+    public long chooseMove(GameDomino model, MoveList moves) {
+        // The rotations are evaluated on the packed sides, without copying the tile
+        int tileToPlace = model.getTileToPlace().getPacked();
+        for (int r = 0; r < 4; r++) {
+            rotations[r] = tileToPlace;
+            tileToPlace = TileDomino.rotateRight(tileToPlace);
+        }
+
+        long chosenMove = moves.get(0);
         int points = 0;
-        int nbTurns = 0;
-
-        for (Pair<Integer, Integer> move : possibleMoves) {
-            for (int i = 0; i < 4; i++) {
-                int pointsToPlace = model.pointsIfPlaced(move.first, move.second, tileToPlace);
-
-                if (pointsToPlace >= points) {
-                    points = pointsToPlace;
-                    position = move;
-                    nbTurns = i;
-                }
-
-                try {
-                    tileToPlace.turnRight(1);
-                } catch (UnableToTurnException e) {
-                    //
-                }
+
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.get(i);
+            int pointsToPlace = model.pointsIfPlaced(MoveList.getX(move), MoveList.getY(move),
+                    rotations[MoveList.getRotation(move)]);
+
+            if (pointsToPlace >= points) {
+                points = pointsToPlace;
+                chosenMove = move;
             }
         }
 
-        model.turn(true, nbTurns);
-
-        model.place(position.first, position.second, this);
+        return chosenMove;
     }
-}
\ No newline at end of file
+}
@@ -1,90 +1,225 @@
 package domino.model;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Random;
-import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.stream.IntStream;
 
-import interfaces.Placeable;
-import interfaces.Placeable.Direction;
 import shared.model.Deck;
 
 /**
  * A deck of dominoes.
+ *
+ * <p>
+ * The tiles are stored packed in an array of {@code int} (see
+ * {@link TileDomino#getPacked()}) and a {@code TileDomino} is only created when
+ * it is drawn, so a deck of a million tiles is a single array.
+ * </p>
  */
 public class DeckDomino extends Deck<SideDomino, TileDomino> {
     // Attributes
+    public static final int SEGMENT_SIZE = 1 << 12; // Number of tiles generated by each generator
+
+    private static final int UP = 0; // Direction of the first occupied side of a chain
+
     private final int nbTiles; // initial number of tiles
+    private final boolean parallel; // Whether the segments are generated in parallel
     private int numberOfTilesDrawn = 0;
 
+    private int[] packedTiles; // The packed tiles of the deck
+
     // Constructor
     /**
-     * Creates a deck of dominoes of size {@code size}.
+     * Creates a deck of dominoes of size {@code size} generated with
+     * {@code random}.
+     */
+    public DeckDomino(int size, RandomGenerator random) {
+        this(size, random, false);
+    }
+
+    /**
+     * Creates a deck of dominoes of size {@code size} generated with
+     * {@code random}. If {@code parallel} is {@code true}, the segments of the
+     * deck are generated in parallel, the deck being the same as if they were
+     * generated sequentially.
      */
-    public DeckDomino(int size) {
+    public DeckDomino(int size, RandomGenerator random, boolean parallel) {
+        super(random);
         nbTiles = size;
+        this.parallel = parallel;
 
-        tiles = new ArrayList<>(size);
         createDeck();
     }
 
+    // Storage
+
+    @Override
+    protected int totalSize() {
+        return packedTiles.length;
+    }
+
+    @Override
+    protected TileDomino tileAt(int i) {
+        return new TileDomino(packedTiles[i]);
+    }
+
+    @Override
+    protected void swap(int i, int j) {
+        int temp = packedTiles[i];
+        packedTiles[i] = packedTiles[j];
+        packedTiles[j] = temp;
+    }
+
     // Methods
 
     /**
-     * Fills the list of tiles with the correct number of tiles. The algorithm also
-     * creates a game which has a solution.
+     * Fills the deck with the correct number of tiles. The algorithm also creates
+     * a game which has a solution: each tile is linked to the previous one by a
+     * side with the same figures.
+     *
+     * <p>
+     * The deck is cut in segments of {@code SEGMENT_SIZE} tiles, each one
+     * generated as a chain with its own generator split from the generator of the
+     * deck. The segments are then linked together, so the deck only depends on
+     * the generator, whether the segments are generated in parallel or not.
+     * </p>
      */
     @Override
     public void createDeck() {
-        Random rand = new Random();
+        packedTiles = new int[nbTiles];
+        next = 0;
+        numberOfTilesDrawn = 0;
+
+        int nbSegments = (nbTiles + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+
+        // The generators are split sequentially so that they do not depend on the
+        // order in which the segments are generated
+        SplittableGenerator root = random instanceof SplittableGenerator ? (SplittableGenerator) random
+                : new SplittableRandom(random.nextLong());
+        SplittableGenerator[] generators = new SplittableGenerator[nbSegments];
+        for (int k = 0; k < nbSegments; k++) {
+            generators[k] = root.split();
+        }
 
-        // Creates the first tile of the game (completely random)
-        tiles.add(new TileDomino());
+        // firstLinks[k] is the side of the first tile of the segment k linked to the
+        // second one, lastOccupied[k] the side of the last tile linked to the previous
+        // one (-1 if the segment has only one tile)
+        int[] firstLinks = new int[nbSegments];
+        int[] lastOccupied = new int[nbSegments];
+
+        IntStream segments = IntStream.range(0, nbSegments);
+        if (parallel)
+            segments = segments.parallel();
+
+        segments.forEach(k -> {
+            int from = k * SEGMENT_SIZE;
+            int to = Math.min(from + SEGMENT_SIZE, nbTiles);
+            generateChain(from, to, generators[k], firstLinks, lastOccupied, k);
+        });
+
+        // Links the first tile of each segment to the last tile of the previous one
+        int occupied = lastOccupied.length == 0 || lastOccupied[0] < 0 ? UP : lastOccupied[0];
+        for (int k = 1; k < nbSegments; k++) {
+            int last = k * SEGMENT_SIZE - 1;
+            int direction;
+
+            // The side of the last tile must be free, as well as the side of the first
+            // tile which receives it
+            do {
+                direction = random.nextInt(4);
+            } while (direction == occupied || opposite(direction) == firstLinks[k]);
+
+            packedTiles[last + 1] = TileDomino.withSide(packedTiles[last + 1], opposite(direction),
+                    TileDomino.sideCode(packedTiles[last], direction));
+
+            occupied = lastOccupied[k] < 0 ? opposite(direction) : lastOccupied[k];
+        }
+    }
 
-        Direction occupied = Direction.UP;
+    /**
+     * Generates a chain of tiles between the indexes {@code from} (included) and
+     * {@code to} (excluded) with {@code generator}, each tile being linked to the
+     * previous one.
+     */
+    private void generateChain(int from, int to, RandomGenerator generator, int[] firstLinks, int[] lastOccupied,
+            int segment) {
+        // Creates the first tile of the chain (completely random)
+        packedTiles[from] = TileDomino.randomPacked(generator);
 
-        while (tiles.size() < nbTiles) {
+        int occupied = UP;
+        int firstLink = -1;
+        int directionToGenerate = -1;
+        int i = from + 1;
 
+        while (i < to) {
             // Generates a random number of tiles to add to the deck. These tiles will be
             // linked to a new tile (just after the last one).
             // We handle the case where the number of tiles to be generated is bigger than
             // the number of tiles left to generate
-            int toGenerate = Math.min(rand.nextInt(3), nbTiles - tiles.size() - 1);
+            int toGenerate = Math.min(generator.nextInt(3), to - i - 1);
 
-            // We choose a random free side of the last tile of the list to link to a new
-            // tile
+            // We choose a random free side of the last tile of the chain to link to a
+            // new tile
+            int freeDirection;
+            do {
+                freeDirection = generator.nextInt(4);
+            } while (freeDirection == occupied);
 
-            Direction freeDirection = occupied;
+            if (firstLink < 0)
+                firstLink = freeDirection;
 
-            while (freeDirection == occupied) {
-                freeDirection = Direction.values()[rand.nextInt(4)];
-            }
-
-            SideDomino side = tiles.get(tiles.size() - 1).getSide(freeDirection);
             // We generate the new tile
-            TileDomino tile = new TileDomino(side, freeDirection);
-            tiles.add(tile);
+            packedTiles[i] = linkedTile(packedTiles[i - 1], freeDirection, generator);
+            i++;
 
-            Direction directionToGenerate = freeDirection;
-            Set<Direction> usedDirections = new HashSet<>();
-            usedDirections.add(Placeable.getOpposite(freeDirection));
+            directionToGenerate = freeDirection;
+            int usedDirections = 1 << opposite(freeDirection); // Mask of the directions
             // We generate the other tiles to link to the new one
-            for (int i = 0; i < toGenerate - 1; i++) {
+            for (int j = 0; j < toGenerate - 1; j++) {
                 // Random side selector
                 do {
-                    directionToGenerate = Direction.values()[rand.nextInt(4)];
-                } while (usedDirections.contains(Placeable.getOpposite(directionToGenerate)));
-
-                usedDirections.add(directionToGenerate);
+                    directionToGenerate = generator.nextInt(4);
+                } while ((usedDirections & (1 << opposite(directionToGenerate))) != 0);
 
-                side = tiles.get(tiles.size() - 1).getSide(directionToGenerate);
+                usedDirections |= 1 << directionToGenerate;
 
-                // We add this new list to the deck
-                tiles.add(new TileDomino(side, directionToGenerate));
+                packedTiles[i] = linkedTile(packedTiles[i - 1], directionToGenerate, generator);
+                i++;
             }
 
-            occupied = Placeable.getOpposite(directionToGenerate);
+            occupied = opposite(directionToGenerate);
         }
+
+        firstLinks[segment] = firstLink;
+        lastOccupied[segment] = directionToGenerate < 0 ? -1 : occupied;
+    }
+
+    /**
+     * Returns a random packed tile with the same figures as the side of
+     * {@code previous} in the direction {@code direction}, on the opposite side.
+     */
+    private static int linkedTile(int previous, int direction, RandomGenerator generator) {
+        return TileDomino.withSide(TileDomino.randomPacked(generator), opposite(direction),
+                TileDomino.sideCode(previous, direction));
+    }
+
+    private static int opposite(int direction) {
+        return (direction + 2) % 4;
+    }
+
+    /**
+     * Returns the packed sides of the tile at the index {@code index} of the tiles
+     * left in the deck, 0 being the top of the deck, without creating a
+     * {@code TileDomino}.
+     *
+     * @param index The index, between 0 and {@code size() - 1}
+     * @return The packed tile
+     */
+    public int getRemainingPacked(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException(index);
+
+        return packedTiles[next + index];
     }
 
     @Override
@@ -93,4 +228,10 @@ public class DeckDomino extends Deck<SideDomino, TileDomino> {
         tile.setId(numberOfTilesDrawn++);
         return tile;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void undoDraw() {
+        super.undoDraw();
+        numberOfTilesDrawn--;
+    }
+}
@@ -0,0 +1,575 @@
+package domino.model;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+import java.util.random.RandomGenerator;
+
+import shared.model.MoveList;
+import utils.Expandable2DArray;
+import utils.TranspositionTable;
+import utils.Zobrist;
+
+/**
+ * A bot of Domino which looks ahead with a depth-limited expectimax search.
+ *
+ * <p>
+ * A level of the search is the turn of a player: the bot chooses the move with
+ * the best value, the opponents the move with the worst value for the bot, and
+ * the tile of each turn after the current one is a chance node over the tiles
+ * left in the deck. The value of a position is the score of the bot minus the
+ * best score of the other players. The search runs with a growing depth until
+ * its time budget is spent or its depth budget is reached, the move of the last
+ * complete depth being played.
+ * </p>
+ *
+ * <p>
+ * The search does not change the game: the tiles it places are kept in a small
+ * overlay on top of the board. A chance node goes through all the tiles left in
+ * the deck if there are at most {@link #getNbSamples()} of them, and samples
+ * that many otherwise, with the stream of the bot in the session. The tiles
+ * placed earlier in the searched line are not taken out of the samples, which
+ * only matters at the end of a small deck.
+ * </p>
+ *
+ * <p>
+ * The value of each chance node is kept in a transposition table, under the
+ * Zobrist hash of the board with the overlay, of the scores and of the player
+ * to move (see {@link GameDomino#getHash()}), so a position reached again by
+ * another order of the same moves is not searched twice. The tiles left in the
+ * deck are in the key too, so the same board in another game, or after a pass,
+ * does not reuse values of other tiles. The table is lock-free and can be
+ * shared by several bots searching at the same time, each on its own thread.
+ * </p>
+ */
+public class ExpectimaxBotDomino extends BotDomino {
+
+    private static final Logger LOGGER = Logger.getLogger(ExpectimaxBotDomino.class.getName());
+
+    public static final long DEFAULT_TIME_BUDGET = 200; // Milliseconds of search per move
+    public static final int DEFAULT_NB_SAMPLES = 6; // Tiles of a chance node
+    public static final int DEFAULT_TABLE_SIZE = 1 << 16; // Entries of the transposition table
+
+    // Offsets of the neighbor in each direction (UP, RIGHT, DOWN, LEFT)
+    private static final int[] DX = { -1, 0, 1, 0 };
+    private static final int[] DY = { 0, 1, 0, -1 };
+
+    // The time is only looked at every CHECK_INTERVAL + 1 nodes
+    private static final int CHECK_INTERVAL = 0xFF;
+
+    // Kinds of the parts of the key of a chance node which are not in the hash of
+    // the game, see Zobrist#key
+    private static final long KEY_DRAWN = 0x9E3779B97F4A7C15L;
+    private static final long KEY_BOT = 0x6A09E667F3BCC909L;
+    private static final long KEY_DECK = 0xBB67AE8584CAA73BL;
+
+    // An entry of the table is the depth searched in the upper 32 bits and the
+    // value as a float in the lower ones
+    private static final long NO_ENTRY = -1;
+
+    // Attributes
+
+    // Budget of a search, 0 meaning no limit. At least one of them is positive
+    private long timeBudget = DEFAULT_TIME_BUDGET; // Milliseconds
+    private int depthBudget = 0; // Number of levels
+    private int nbSamples = DEFAULT_NB_SAMPLES;
+    private final TranspositionTable table;
+
+    // State of the current search
+    private GameDomino game;
+    private RandomGenerator random;
+    private int botIndex; // Index of the player searched for, in the order of the turns
+    private int[] scores; // Scores of the players in the searched line
+    private int maxDraws; // Number of tiles which can still be drawn
+    private long deadline; // Value of System.nanoTime() at which the search stops
+    private boolean canStop; // Whether the search can stop before the end of its depth
+    private boolean isTimeUp;
+    private long nodes;
+    private long tableHits;
+    private long lineHash; // Hash of the board with the overlay and of the scores
+    private long deckHash; // Hash of the tiles left in the deck, which the search does not draw
+
+    // Tiles placed by the searched line, on top of the board
+    private long[] overlayCells = new long[16];
+    private int[] overlayTiles = new int[16];
+    private int overlaySize = 0;
+
+    private MoveList[] movesByDepth = new MoveList[0]; // Buffer of the moves of each level
+    private final MoveList boardMoves = new MoveList(); // Buffer of the moves on the board only
+    private final int[] rotated = new int[4]; // Packed sides of each rotation of a tile
+
+    // Statistics of the last search
+    private int lastDepth = 0;
+    private long lastNodes = 0;
+    private long lastTableHits = 0;
+    private long lastDuration = 0; // Nanoseconds
+
+    // Constructors
+
+    public ExpectimaxBotDomino() {
+        this(new TranspositionTable(DEFAULT_TABLE_SIZE));
+    }
+
+    /**
+     * Creates a bot which keeps the values of its searches in {@code table}. The
+     * table may be shared with other bots, even if they search at the same time.
+     *
+     * @param table The transposition table of the searches
+     */
+    public ExpectimaxBotDomino(TranspositionTable table) {
+        super();
+
+        if (table == null)
+            throw new IllegalArgumentException("The table is null");
+
+        this.table = table;
+    }
+
+    // Getters
+
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    public int getDepthBudget() {
+        return depthBudget;
+    }
+
+    public int getNbSamples() {
+        return nbSamples;
+    }
+
+    /**
+     * Returns the depth of the last search which was completed, 1 being the turn
+     * of the bot only.
+     *
+     * @return The depth reached by the last search
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Returns the number of nodes of the last search.
+     *
+     * @return The number of nodes
+     */
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    /**
+     * Returns the number of chance nodes of the last search whose value was found
+     * in the transposition table.
+     *
+     * @return The number of hits in the table
+     */
+    public long getLastTableHits() {
+        return lastTableHits;
+    }
+
+    /**
+     * Returns the number of nodes searched per second by the last search.
+     *
+     * @return The number of nodes per second, 0 if there was no search
+     */
+    public double getNodesPerSecond() {
+        return lastDuration == 0 ? 0 : lastNodes * 1e9 / lastDuration;
+    }
+
+    // Setters
+
+    /**
+     * Sets the time budget of a move. The first depth is always searched
+     * completely, so the bot always has a move.
+     *
+     * @param millis The number of milliseconds of a search, 0 for no limit
+     * @throws IllegalArgumentException If the budget is negative or if the search
+     *                                  would have no limit
+     */
+    public void setTimeBudget(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("The time budget must be positive");
+
+        if (millis == 0 && depthBudget == 0)
+            throw new IllegalArgumentException("The search must have a time or a depth budget");
+
+        timeBudget = millis;
+    }
+
+    /**
+     * Sets the deepest level searched, 1 being the turn of the bot only. With no
+     * time budget, the search is reproducible: it only depends on the game and on
+     * the stream of the bot in the session.
+     *
+     * @param depth The number of levels of a search, 0 for no limit
+     * @throws IllegalArgumentException If the budget is negative or if the search
+     *                                  would have no limit
+     */
+    public void setDepthBudget(int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("The depth budget must be positive");
+
+        if (depth == 0 && timeBudget == 0)
+            throw new IllegalArgumentException("The search must have a time or a depth budget");
+
+        depthBudget = depth;
+    }
+
+    /**
+     * Sets the number of tiles of a chance node.
+     *
+     * @param nbSamples The number of tiles, at least 1
+     * @throws IllegalArgumentException If the number is not positive
+     */
+    public void setNbSamples(int nbSamples) {
+        if (nbSamples <= 0)
+            throw new IllegalArgumentException("The number of samples must be positive");
+
+        this.nbSamples = nbSamples;
+    }
+
+    // Methods
+
+    /**
+     * Searches the moves of {@code rootMoves} for the current player of
+     * {@code model} with a growing depth and returns the best move of the last
+     * complete depth.
+     */
+    @Override
+    public long chooseMove(GameDomino model, MoveList rootMoves) {
+        long start = System.nanoTime();
+        initSearch(model, start);
+
+        long[] moves = rootMoves.stream().toArray();
+        int rootTile = model.getTileToPlace().getPacked();
+        int maxDepth = depthBudget == 0 ? maxDraws + 1 : Math.min(depthBudget, maxDraws + 1);
+
+        for (int depth = 1; depth <= maxDepth && !isTimeUp; depth++) {
+            // The first depth must give a move
+            canStop = depth > 1;
+
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+
+            for (int i = 0; i < moves.length && !isTimeUp; i++) {
+                double value = valueOfMove(moves[i], rootTile, botIndex, depth, 0);
+
+                if (!isTimeUp && value > bestValue) {
+                    bestValue = value;
+                    best = i;
+                }
+            }
+
+            if (isTimeUp)
+                break;
+
+            // The best move is searched first at the next depth
+            long bestMove = moves[best];
+            System.arraycopy(moves, 0, moves, 1, best);
+            moves[0] = bestMove;
+            lastDepth = depth;
+        }
+
+        lastNodes = nodes;
+        lastTableHits = tableHits;
+        lastDuration = System.nanoTime() - start;
+        game = null;
+
+        LOGGER.fine(() -> String.format("%s: depth %d, %d nodes (%d table hits) in %.1f ms, %.0f nodes/s", name,
+                lastDepth, lastNodes, lastTableHits, lastDuration / 1e6, getNodesPerSecond()));
+
+        return moves[0];
+    }
+
+    private void initSearch(GameDomino model, long start) {
+        game = model;
+        random = model.getRandomGenerator(this);
+        deadline = start + timeBudget * 1_000_000;
+        isTimeUp = false;
+        nodes = 0;
+        tableHits = 0;
+        overlaySize = 0;
+        maxDraws = model.getNbRemainingTiles();
+        lineHash = model.getBoardHash();
+
+        // The keys of the tiles are added, not XORed, so that two same tiles do not
+        // cancel each other
+        deckHash = 0;
+        for (int i = 0; i < maxDraws; i++) {
+            deckHash += Zobrist.key(KEY_DECK, model.getRemainingTile(i));
+        }
+
+        scores = new int[model.getNbPlayers()];
+        for (int p = 0; p < scores.length; p++) {
+            scores[p] = model.getPlayer(p).getScore();
+            lineHash ^= Zobrist.score(p, scores[p]);
+            if (model.getPlayer(p) == model.getCurrentPlayer())
+                botIndex = p;
+        }
+    }
+
+    /**
+     * Returns the value of the move {@code move} of the tile {@code tile} for the
+     * player {@code player}, searching {@code depth} levels from this one.
+     */
+    private double valueOfMove(long move, int tile, int player, int depth, int drawn) {
+        int x = MoveList.getX(move);
+        int y = MoveList.getY(move);
+        int packed = tile;
+        for (int r = MoveList.getRotation(move); r > 0; r--) {
+            packed = TileDomino.rotateRight(packed);
+        }
+
+        int points = points(x, y, packed);
+        long placed = Zobrist.placement(x, y, packed) ^ Zobrist.score(player, scores[player])
+                ^ Zobrist.score(player, scores[player] + points);
+
+        pushTile(x, y, packed);
+        scores[player] += points;
+        lineHash ^= placed;
+
+        double value = chance(nextPlayer(player), depth - 1, drawn);
+
+        lineHash ^= placed;
+        scores[player] -= points;
+        overlaySize--;
+
+        return value;
+    }
+
+    /**
+     * Returns the expected value of the turn of {@code player}, whose tile is not
+     * drawn yet.
+     */
+    private double chance(int player, int depth, int drawn) {
+        if (depth == 0 || drawn >= maxDraws)
+            return evaluate();
+
+        long key = lineHash ^ deckHash ^ Zobrist.player(player) ^ Zobrist.key(KEY_DRAWN, drawn)
+                ^ Zobrist.key(KEY_BOT, botIndex);
+        long entry = table.get(key, NO_ENTRY);
+        if (entry != NO_ENTRY && (int) (entry >>> 32) >= depth) {
+            tableHits++;
+            return Float.intBitsToFloat((int) entry);
+        }
+
+        int nbRemaining = game.getNbRemainingTiles();
+        int nbTiles = Math.min(nbSamples, nbRemaining);
+        double sum = 0;
+
+        for (int i = 0; i < nbTiles && !isTimeUp; i++) {
+            int tile = nbRemaining <= nbSamples ? game.getRemainingTile(i) : game.sampleRemainingTile(random);
+            sum += turn(player, tile, depth, drawn + 1);
+        }
+
+        double value = sum / nbTiles;
+
+        // The value of an interrupted node is not complete
+        if (!isTimeUp)
+            table.put(key, ((long) depth << 32) | (Float.floatToRawIntBits((float) value) & 0xFFFFFFFFL));
+
+        return value;
+    }
+
+    /**
+     * Returns the value of the turn of {@code player} with the tile {@code tile}:
+     * the best move for the bot, the worst for the bot if it is an opponent.
+     */
+    private double turn(int player, int tile, int depth, int drawn) {
+        nodes++;
+        if (canStop && timeBudget != 0 && (nodes & CHECK_INTERVAL) == 0 && System.nanoTime() - deadline > 0) {
+            isTimeUp = true;
+            return 0;
+        }
+
+        MoveList moves = movesAt(depth);
+
+        // The player passes if the tile cannot be placed
+        if (generateMoves(moves, tile) == 0)
+            return chance(nextPlayer(player), depth - 1, drawn);
+
+        boolean isBot = player == botIndex;
+        double best = isBot ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < moves.size() && !isTimeUp; i++) {
+            double value = valueOfMove(moves.get(i), tile, player, depth, drawn);
+            best = isBot ? Math.max(best, value) : Math.min(best, value);
+        }
+
+        return best;
+    }
+
+    /**
+     * Returns the score of the bot minus the best score of the other players
+     * still in the game.
+     */
+    private double evaluate() {
+        int bestOther = 0;
+
+        for (int p = 0; p < scores.length; p++) {
+            if (p != botIndex && game.getPlayer(p).isInGame())
+                bestOther = Math.max(bestOther, scores[p]);
+        }
+
+        return scores[botIndex] - bestOther;
+    }
+
+    private int nextPlayer(int player) {
+        int next = player;
+
+        do {
+            next = (next + 1) % scores.length;
+        } while (!game.getPlayer(next).isInGame() && next != player);
+
+        return next;
+    }
+
+    private MoveList movesAt(int depth) {
+        if (depth >= movesByDepth.length) {
+            MoveList[] lists = new MoveList[depth + 1];
+            System.arraycopy(movesByDepth, 0, lists, 0, movesByDepth.length);
+            for (int i = movesByDepth.length; i < lists.length; i++) {
+                lists[i] = new MoveList();
+            }
+            movesByDepth = lists;
+        }
+
+        return movesByDepth[depth];
+    }
+
+    // Overlay
+
+    private void pushTile(int x, int y, int packed) {
+        if (overlaySize == overlayCells.length) {
+            overlayCells = Arrays.copyOf(overlayCells, overlaySize * 2);
+            overlayTiles = Arrays.copyOf(overlayTiles, overlaySize * 2);
+        }
+
+        overlayCells[overlaySize] = Expandable2DArray.pack(x, y);
+        overlayTiles[overlaySize] = packed;
+        overlaySize++;
+    }
+
+    /**
+     * Returns the packed tile at ({@code x}, {@code y}) in the overlay or on the
+     * board, {@link GameDomino#NO_TILE} if the cell is empty.
+     */
+    private int packedAt(int x, int y) {
+        long cell = Expandable2DArray.pack(x, y);
+
+        for (int i = 0; i < overlaySize; i++) {
+            if (overlayCells[i] == cell)
+                return overlayTiles[i];
+        }
+
+        return game.getPackedAt(x, y);
+    }
+
+    private boolean hasBoardNeighbor(int x, int y) {
+        for (int d = 0; d < 4; d++) {
+            if (game.getPackedAt(x + DX[d], y + DY[d]) != GameDomino.NO_TILE)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the points of the tile packed in {@code packed} placed at
+     * ({@code x}, {@code y}), the overlay included, -1 if it cannot be placed
+     * there.
+     */
+    private int points(int x, int y, int packed) {
+        if (packedAt(x, y) != GameDomino.NO_TILE)
+            return -1;
+
+        int score = 0;
+        boolean hasNeighbor = false;
+
+        for (int d = 0; d < 4; d++) {
+            int neighbor = packedAt(x + DX[d], y + DY[d]);
+            if (neighbor == GameDomino.NO_TILE)
+                continue;
+
+            int code = TileDomino.sideCode(packed, d);
+            if (code != TileDomino.sideCode(neighbor, (d + 2) % 4))
+                return -1;
+
+            hasNeighbor = true;
+            score += SideDomino.getFigSum(code);
+        }
+
+        return hasNeighbor ? score : -1;
+    }
+
+    /**
+     * Fills {@code moves} with the moves of the tile {@code tile}, the overlay
+     * included: the moves on the board which still fit, then the moves on the
+     * cells which are only next to tiles of the overlay.
+     */
+    private int generateMoves(MoveList moves, int tile) {
+        moves.clear();
+        game.generateMoves(boardMoves, tile);
+
+        if (overlaySize == 0) {
+            for (int i = 0; i < boardMoves.size(); i++) {
+                moves.add(boardMoves.get(i));
+            }
+            return moves.size();
+        }
+
+        int distinct = 0;
+        for (int r = 0; r < 4; r++) {
+            rotated[r] = r == 0 ? tile : TileDomino.rotateRight(rotated[r - 1]);
+
+            boolean isNew = true;
+            for (int previous = 0; previous < r && isNew; previous++) {
+                isNew = rotated[previous] != rotated[r];
+            }
+            if (isNew)
+                distinct |= 1 << r;
+        }
+
+        for (int i = 0; i < boardMoves.size(); i++) {
+            long move = boardMoves.get(i);
+            if (points(MoveList.getX(move), MoveList.getY(move), rotated[MoveList.getRotation(move)]) >= 0)
+                moves.add(move);
+        }
+
+        for (int k = 0; k < overlaySize; k++) {
+            int ox = Expandable2DArray.unpackX(overlayCells[k]);
+            int oy = Expandable2DArray.unpackY(overlayCells[k]);
+
+            for (int d = 0; d < 4; d++) {
+                int x = ox + DX[d];
+                int y = oy + DY[d];
+
+                // The cells next to the board were given by the board, and a cell next
+                // to several tiles of the overlay is only looked at once
+                if (hasBoardNeighbor(x, y) || isNextToOverlay(x, y, k))
+                    continue;
+
+                for (int r = 0; r < 4; r++) {
+                    if ((distinct & (1 << r)) != 0 && points(x, y, rotated[r]) >= 0)
+                        moves.add(x, y, r, MoveList.NO_PAWN);
+                }
+            }
+        }
+
+        return moves.size();
+    }
+
+    /**
+     * Returns {@code true} if ({@code x}, {@code y}) is next to one of the first
+     * {@code count} tiles of the overlay.
+     */
+    private boolean isNextToOverlay(int x, int y, int count) {
+        for (int k = 0; k < count; k++) {
+            int ox = Expandable2DArray.unpackX(overlayCells[k]);
+            int oy = Expandable2DArray.unpackY(overlayCells[k]);
+
+            if (Math.abs(ox - x) + Math.abs(oy - y) == 1)
+                return true;
+        }
+        return false;
+    }
+}
@@ -1,21 +1,46 @@
 package domino.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
 import exceptions.TileNotFoundException;
-import interfaces.Placeable;
-import interfaces.Placeable.Direction;
 import shared.model.Game;
+import shared.model.MoveList;
 import shared.model.Player;
 import utils.Expandable2DArray;
-import utils.Pair;
+import utils.IndexedLongSet;
 
 /**
  * Represents a game of Domino
  */
 public class GameDomino extends Game<SideDomino, TileDomino> {
 
+    public static final int NO_TILE = -1; // Packed value of an empty cell, see getPackedAt
+
+    private final TileDomino[] dominoNeighbors = new TileDomino[4]; // Buffer for the neighbors of a cell
+
+    // Offsets of the neighbor in each direction (UP, RIGHT, DOWN, LEFT)
+    private static final int[] DX = { -1, 0, 1, 0 };
+    private static final int[] DY = { 0, 1, 0, -1 };
+
+    // Index of the open edges of the board: openEdges[d * NB_CODES + code] contains
+    // the empty cells whose side in the direction d must have the code code, i.e.
+    // the cells which have a neighbor in the direction d showing this code
+    private final IndexedLongSet[] openEdges = new IndexedLongSet[4 * SideDomino.NB_CODES];
+
+    // What each placement changed in openEdges, 4 values per placement: for each
+    // direction, the index the cell had in the set it was removed from, or ADDED
+    // if the neighbor was added to a set, to undo the placement
+    private static final int ADDED = -1;
+    private static final int NOT_ADDED = -2;
+    private int[] edgesLog = new int[64];
+    private int edgesLogSize = 0;
+
+    // Buffers of generateMoves: the packed sides of each rotation of the tile to
+    // place and the cells found in openEdges
+    private final int[] rotations = new int[4];
+    private long[] candidates = new long[64];
+
     // Constructor
 
     /**
@@ -31,33 +56,248 @@ public class GameDomino extends Game<SideDomino, TileDomino> {
         for (int i = 0; i < nbPlayers; i++) {
             players[i] = new PlayerDomino();
         }
+        initRandom(randomSeed());
+
         // Creation of the deck
-        deck = new DeckDomino(nbTiles);
+        deck = new DeckDomino(nbTiles, splitRandom());
         deckSize = nbTiles;
 
-        currentTile = deck.draw();
-        currentPosition = new Pair<>(0, 0);
-        board = new Expandable2DArray<>(currentTile);
+        initBoard(deck.draw());
 
         currentPlayer = 0;
     }
 
     public GameDomino(PlayerDomino[] players, int nbTiles) {
+        this(players, nbTiles, randomSeed());
+    }
+
+    /**
+     * Creates a game of Domino with the players {@code players} and
+     * {@code nbTiles} tiles, every random decision being derived from
+     * {@code seed}.
+     * 
+     * @param players The players
+     * @param nbTiles Number of tiles
+     * @param seed    Seed of the session, see {@link #getSeed()}
+     */
+    public GameDomino(PlayerDomino[] players, int nbTiles, long seed) {
         // Creation of the players
         this.players = players;
+        initRandom(seed);
+
         // Creation of the deck
-        deck = new DeckDomino(nbTiles);
+        deck = new DeckDomino(nbTiles, splitRandom());
         deckSize = nbTiles;
 
-        currentTile = deck.draw();
-        currentPosition = new Pair<>(0, 0);
-        board = new Expandable2DArray<>(currentTile);
+        initBoard(deck.draw());
 
         currentPlayer = 0;
     }
 
     // Methods
 
+    @Override
+    protected void initBoard(TileDomino firstTile) {
+        super.initBoard(firstTile);
+
+        for (int i = 0; i < openEdges.length; i++) {
+            openEdges[i] = new IndexedLongSet();
+        }
+        edgesLogSize = 0;
+        openEdges(0, 0, firstTile);
+    }
+
+    /**
+     * The content of a tile of Domino is its packed sides, the rotation included.
+     */
+    @Override
+    protected long tileKey(TileDomino tile) {
+        return tile.getPacked();
+    }
+
+    /**
+     * Updates the index of the open edges after {@code tile} has been placed at
+     * ({@code x}, {@code y}): the cell is not open anymore and the empty cells
+     * around it now require the sides of the tile.
+     */
+    private void openEdges(int x, int y, TileDomino tile) {
+        long cell = Expandable2DArray.pack(x, y);
+
+        if (edgesLogSize + 4 > edgesLog.length)
+            edgesLog = Arrays.copyOf(edgesLog, edgesLog.length * 2);
+
+        board.getNeighbors(x, y, dominoNeighbors);
+        for (int d = 0; d < 4; d++) {
+            if (dominoNeighbors[d] != null) {
+                // The cell was open on this side
+                int code = TileDomino.sideCode(dominoNeighbors[d].getPacked(), (d + 2) % 4);
+                edgesLog[edgesLogSize++] = openEdges[d * SideDomino.NB_CODES + code].removeAndGetIndex(cell);
+            } else {
+                // The empty neighbor must match the side of the tile facing it
+                int code = TileDomino.sideCode(tile.getPacked(), d);
+                boolean isAdded = openEdges[((d + 2) % 4) * SideDomino.NB_CODES + code]
+                        .add(Expandable2DArray.pack(x + DX[d], y + DY[d]));
+                edgesLog[edgesLogSize++] = isAdded ? ADDED : NOT_ADDED;
+            }
+        }
+    }
+
+    /**
+     * Undoes {@link #openEdges(int, int, TileDomino)} for the last tile placed,
+     * {@code tile} at ({@code x}, {@code y}), which is still on the board.
+     */
+    private void closeEdges(int x, int y, TileDomino tile) {
+        long cell = Expandable2DArray.pack(x, y);
+
+        board.getNeighbors(x, y, dominoNeighbors);
+        for (int d = 3; d >= 0; d--) {
+            int change = edgesLog[--edgesLogSize];
+
+            if (dominoNeighbors[d] != null) {
+                int code = TileDomino.sideCode(dominoNeighbors[d].getPacked(), (d + 2) % 4);
+                if (change >= 0)
+                    openEdges[d * SideDomino.NB_CODES + code].restore(cell, change);
+            } else if (change == ADDED) {
+                int code = TileDomino.sideCode(tile.getPacked(), d);
+                openEdges[((d + 2) % 4) * SideDomino.NB_CODES + code].removeLast();
+            }
+        }
+    }
+
+    @Override
+    protected void undoPlacement(TileDomino tile, int x, int y) {
+        closeEdges(x, y, tile);
+        super.undoPlacement(tile, x, y);
+    }
+
+    /**
+     * Fills {@code moves} with the legal moves of the current player. Instead of
+     * testing every cell of the frontier, the sides of each rotation of the tile
+     * are looked up in the index of the open edges, and only the cells found
+     * there are checked. A rotation which gives the same sides as an earlier one
+     * is skipped, since it is the same move.
+     * 
+     * @param moves The list to fill, cleared first
+     * @return The number of moves
+     */
+    @Override
+    public int generateMoves(MoveList moves) {
+        if (tileToPlace == null || tileToPlace.isPlaced()) {
+            moves.clear();
+            return 0;
+        }
+
+        return generateMoves(moves, tileToPlace.getPacked());
+    }
+
+    /**
+     * Fills {@code moves} with the moves which place the tile packed in
+     * {@code packedTile} on the board, as {@link #generateMoves(MoveList)} does for
+     * the tile to place. The rotations are counted from {@code packedTile}, so a
+     * search can generate the moves of a tile which is not drawn yet.
+     * 
+     * @param moves      The list to fill, cleared first
+     * @param packedTile Packed sides of the tile, see {@link TileDomino#getPacked()}
+     * @return The number of moves
+     */
+    public int generateMoves(MoveList moves, int packedTile) {
+        moves.clear();
+
+        int packed = packedTile;
+        int distinct = 0;
+        int nbCandidates = 0;
+
+        for (int r = 0; r < 4; r++) {
+            rotations[r] = packed;
+
+            boolean isNew = true;
+            for (int previous = 0; previous < r && isNew; previous++) {
+                isNew = rotations[previous] != packed;
+            }
+
+            if (isNew) {
+                distinct |= 1 << r;
+
+                for (int d = 0; d < 4; d++) {
+                    IndexedLongSet cells = openEdges[d * SideDomino.NB_CODES + TileDomino.sideCode(packed, d)];
+
+                    if (nbCandidates + cells.size() > candidates.length)
+                        candidates = Arrays.copyOf(candidates,
+                                Math.max(candidates.length * 2, nbCandidates + cells.size()));
+
+                    for (int i = 0; i < cells.size(); i++) {
+                        candidates[nbCandidates++] = cells.get(i);
+                    }
+                }
+            }
+            packed = TileDomino.rotateRight(packed);
+        }
+
+        // A cell can be found by several sides, the sort puts its copies together
+        Arrays.sort(candidates, 0, nbCandidates);
+
+        for (int i = 0; i < nbCandidates; i++) {
+            if (i > 0 && candidates[i] == candidates[i - 1])
+                continue;
+
+            int x = Expandable2DArray.unpackX(candidates[i]);
+            int y = Expandable2DArray.unpackY(candidates[i]);
+
+            // A candidate matches one of its neighbors, it must match all of them
+            for (int r = 0; r < 4; r++) {
+                if ((distinct & (1 << r)) != 0 && pointsIfPlaced(x, y, rotations[r]) >= 0)
+                    moves.add(x, y, r, MoveList.NO_PAWN);
+            }
+        }
+
+        return moves.size();
+    }
+
+    /**
+     * Returns the packed sides of the tile at ({@code x}, {@code y}), see
+     * {@link TileDomino#getPacked()}.
+     * 
+     * @param x X position of the cell
+     * @param y Y position of the cell
+     * @return The packed tile, {@link #NO_TILE} if the cell is empty
+     */
+    public int getPackedAt(int x, int y) {
+        if (board.isOutOfBounds(x, y))
+            return NO_TILE;
+
+        TileDomino tile = board.get(x, y);
+        return tile == null ? NO_TILE : tile.getPacked();
+    }
+
+    /**
+     * Returns the packed sides of a tile left in the deck, chosen uniformly with
+     * {@code random}. The order of the deck stays hidden, only its content is
+     * known, like the tiles a player has not seen yet.
+     * 
+     * @param random The generator of the choice
+     * @return The packed tile
+     * @throws IllegalStateException If the deck is empty
+     */
+    public int sampleRemainingTile(RandomGenerator random) {
+        if (deck.isEmpty())
+            throw new IllegalStateException("The deck is empty");
+
+        return getRemainingTile(random.nextInt(deck.size()));
+    }
+
+    /**
+     * Returns the packed sides of the tile at the index {@code index} of the
+     * tiles left in the deck. The tiles are in no particular order for the
+     * players, this is meant to go through all of them when there are only a few
+     * left.
+     * 
+     * @param index The index, between 0 and {@link #getNbRemainingTiles()} - 1
+     * @return The packed tile
+     */
+    public int getRemainingTile(int index) {
+        return ((DeckDomino) deck).getRemainingPacked(index);
+    }
+
     /**
      * Resets the parameters of the game. If {@code initScore} is {@code true},
      * every score is reset at 0, otherwise, they stay as they are. The deck is
@@ -80,15 +320,11 @@ public class GameDomino extends Game<SideDomino, TileDomino> {
         }
 
         // deck
-        deck = new DeckDomino(deckSize);
+        deck = new DeckDomino(deckSize, splitRandom());
         deck.shuffle();
 
-        // currentTile & currentPosition
-        currentTile = deck.draw();
-        currentPosition = new Pair<>(0, 0);
-
-        // board
-        board = new Expandable2DArray<>(currentTile);
+        // board, currentTile & currentPosition
+        initBoard(deck.draw());
 
         // currentPlayer
         currentPlayer = 0;
@@ -112,26 +348,41 @@ public class GameDomino extends Game<SideDomino, TileDomino> {
     public void place(int x, int y, Player player) throws TileNotFoundException {
         super.place(x, y, player);
 
-        List<Pair<Placeable<SideDomino>, Direction>> neighbors = getNeighborsFromPosition(x, y);
+        openEdges(x, y, tileToPlace);
+
+        int neighborsMask = getNeighborsFromPosition(x, y, neighborsBuffer);
         // Increment the score of the player
-        incrementPlayerScore(neighbors, player);
+        incrementPlayerScore(neighborsMask, player);
     }
 
     /**
      * Increments the score of the player who placed the tile.
      * 
-     * @param neighbors Neighbors of the tile
-     * @param player    Player who placed the tile
+     * @param neighborsMask Mask of the directions in which the tile has a neighbor
+     * @param player        Player who placed the tile
      */
-    protected void incrementPlayerScore(List<Pair<Placeable<SideDomino>, Direction>> neighbors, Player player) {
-
+    protected void incrementPlayerScore(int neighborsMask, Player player) {
         // increments score according to what's just been played
+        player.incrementScore(score(tileToPlace, neighborsMask));
+    }
+
+    /**
+     * Returns the sum of the figures of {@code tile} on the sides in contact with
+     * a neighbor.
+     * 
+     * @param tile          The tile
+     * @param neighborsMask Mask of the directions in which the tile has a neighbor
+     * @return The score of the tile
+     */
+    private static int score(TileDomino tile, int neighborsMask) {
         int score = 0;
 
-        for (Pair<Placeable<SideDomino>, Direction> p : neighbors)
-            score += tileToPlace.getSide(p.second).getFigSum();
+        for (int i = 0; i < 4; i++) {
+            if ((neighborsMask & (1 << i)) != 0)
+                score += SideDomino.getFigSum(TileDomino.sideCode(tile.getPacked(), i));
+        }
 
-        player.incrementScore(score);
+        return score;
     }
 
     /**
@@ -150,31 +401,51 @@ public class GameDomino extends Game<SideDomino, TileDomino> {
      *
      */
     public int pointsIfPlaced(int x, int y, TileDomino tile) {
+        if (tile == null)
+            throw new IllegalArgumentException("Tile is null");
 
-        handleInputPointsIfPlaced(x, y, tile);
+        return pointsIfPlaced(x, y, tile.getPacked());
+    }
 
-        List<Pair<Placeable<SideDomino>, Direction>> neighbors = new ArrayList<>();
+    /**
+     * Returns the amount of points a player would score if the tile packed in
+     * {@code packedTile} is placed at ({@code x}, {@code y}). It works directly on
+     * the packed sides, so it does not need a {@code TileDomino}.
+     * 
+     * @param x          X position of the tile
+     * @param y          Y position of the tile
+     * @param packedTile Packed sides of the tile, see {@link TileDomino#getPacked()}
+     * @return amount of points that the player would get if he placed the tile at
+     *         the given position, -1 if the tile cannot be placed there
+     * @throws IllegalArgumentException  If there is already a tile at the given
+     *                                   position or if it has no neighbor
+     * @throws IndexOutOfBoundsException If the position is out of bounds
+     */
+    public int pointsIfPlaced(int x, int y, int packedTile) {
 
-        board.getNeighbors(x, y).forEach(p -> neighbors.add(new Pair<>(p.first, p.second)));
+        handleInputPointsIfPlaced(x, y);
 
-        if (neighbors.isEmpty())
+        if (board.getNeighbors(x, y, dominoNeighbors) == 0)
             throw new IllegalArgumentException("The tile must be placed next to another tile");
 
-        if (!tile.canBePlaced(neighbors))
-            return -1;
-
         int score = 0;
 
-        for (Pair<Placeable<SideDomino>, Direction> p : neighbors)
-            score += tile.getSide(p.second).getFigSum();
+        for (int i = 0; i < 4; i++) {
+            if (dominoNeighbors[i] == null)
+                continue;
 
-        return score;
+            // The side must match the opposite side of the neighbor
+            int code = TileDomino.sideCode(packedTile, i);
+            if (code != TileDomino.sideCode(dominoNeighbors[i].getPacked(), (i + 2) % 4))
+                return -1;
+
+            score += SideDomino.getFigSum(code);
+        }
 
+        return score;
     }
 
-    private void handleInputPointsIfPlaced(int x, int y, TileDomino tile) {
-        if (tile == null)
-            throw new IllegalArgumentException("Tile is null");
+    private void handleInputPointsIfPlaced(int x, int y) {
         if (!board.isInsideExpandableBounds(x, y))
             throw new IndexOutOfBoundsException("Position is out of bounds");
         if (!board.isOutOfBounds(x, y) && board.get(x, y) != null)
@@ -1,54 +1,116 @@
 package domino.model;
 
-import java.util.Arrays;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 import shared.model.Side;
 
 /**
  * This class represents the side of a domino tile.
+ *
+ * <p>
+ * A side is an immutable view over a 6 bits code: the figure {@code i} is
+ * stored on the bits {@code 2i} and {@code 2i + 1}. As there are only 64
+ * codes, the sides are shared, see {@link #of(int)}, and the operations on
+ * them are table lookups.
+ * </p>
  */
 public class SideDomino extends Side {
     // Attributes
     public static final int MAX_VALUE = 3; // Max value of a side
 
-    private final int[] fig; // The figures on the side
+    public static final int NB_CODES = 1 << 6; // Number of different sides
+
+    private static final SideDomino[] SIDES = new SideDomino[NB_CODES]; // Shared sides
+    private static final int[] REVERSED = new int[NB_CODES]; // Code of the reversed side
+    private static final int[] FIG_SUMS = new int[NB_CODES]; // Sum of the figures of the side
+
+    static {
+        for (int code = 0; code < NB_CODES; code++) {
+            SIDES[code] = new SideDomino(code);
+            REVERSED[code] = (code & 0b001100) | ((code & 0b11) << 4) | (code >>> 4);
+            FIG_SUMS[code] = (code & 0b11) + ((code >>> 2) & 0b11) + (code >>> 4);
+        }
+    }
+
+    private final int code; // The figures on the side
 
     // Constructors
     public SideDomino(int[] tab) {
         if (isValidFig(tab)) {
-            fig = tab;
+            code = encode(tab);
         } else
             throw new IllegalArgumentException("The array is not valid");
     }
 
     /**
-     * Creates a random side.
+     * Creates a random side with {@code random}.
      */
-    public SideDomino() {
-        Random rand = new Random();
+    public SideDomino(RandomGenerator random) {
+        code = randomCode(random);
+    }
 
-        fig = new int[3];
-        for (int i = 0; i < 3; i++) {
-            fig[i] = rand.nextInt(MAX_VALUE + 1);
-        }
+    private SideDomino(int code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the shared side of code {@code code}.
+     *
+     * @param code The code of the side, between 0 and {@code NB_CODES - 1}
+     * @return The side of code {@code code}
+     */
+    public static SideDomino of(int code) {
+        return SIDES[code];
+    }
+
+    /**
+     * Returns the code of a random side. The 3 figures being independent and
+     * uniform, it is a uniform code.
+     *
+     * @param random The generator to use
+     * @return The code of a random side
+     */
+    public static int randomCode(RandomGenerator random) {
+        return random.nextInt(NB_CODES);
     }
 
     // Getters
+
+    /**
+     * Returns a new array of the figures on the side.
+     *
+     * @return The figures on the side
+     */
     public int[] getFig() {
-        return fig;
+        return new int[] { code & 0b11, (code >>> 2) & 0b11, code >>> 4 };
+    }
+
+    /**
+     * Returns the 6 bits code of the side.
+     *
+     * @return The code of the side
+     */
+    public int getCode() {
+        return code;
     }
 
     /**
      * Returns the sum of the figures on the side.
-     * 
+     *
      * @return The sum of the figures on the side.
      */
     public int getFigSum() {
-        int sum = 0;
-        for (int i : fig)
-            sum += i;
-        return sum;
+        return FIG_SUMS[code];
+    }
+
+    /**
+     * Returns the sum of the figures on the side of code {@code code}.
+     *
+     * @param code The code of the side
+     * @return The sum of the figures on the side
+     */
+    public static int getFigSum(int code) {
+        return FIG_SUMS[code];
     }
 
     // Methods
@@ -56,7 +118,7 @@ public class SideDomino extends Side {
     /**
      * Verifies if {@code tab} is an array of 3 integers between 0 and
      * {@code MAX_VALUE}
-     * 
+     *
      * @param tab the array to check
      * @return {@code true} if {@code tab} is an array of 3 integers between 0 and
      *         {@code MAX_VALUE}
@@ -74,42 +136,58 @@ public class SideDomino extends Side {
         return true;
     }
 
+    private static int encode(int[] tab) {
+        return tab[0] | (tab[1] << 2) | (tab[2] << 4);
+    }
+
     /**
-     * Reverse the order of the figures on the side. Useful to turn correctly the
-     * side.
+     * Returns the side with the figures in the reverse order. Useful to turn
+     * correctly the side.
+     *
+     * @return The reversed side
      */
-    public void reverseOrder() {
-        int tmp = fig[0];
-        fig[0] = fig[2];
-        fig[2] = tmp;
+    public SideDomino reversed() {
+        return SIDES[REVERSED[code]];
+    }
+
+    /**
+     * Returns the code of the side of code {@code code} with the figures in the
+     * reverse order.
+     *
+     * @param code The code of the side
+     * @return The code of the reversed side
+     */
+    public static int reversed(int code) {
+        return REVERSED[code];
     }
 
     /**
      * Returns {@code true} if the figures are identical to the figures on
      * {@code side}.
-     * 
+     *
      * @param side {@code SideDomino} to compare
      * @return {@code true} if the figures are identical to the figures on
      *         {@code side}
      *
      */
     public boolean hasSameFig(SideDomino side) {
-        return Arrays.equals(fig, side.getFig());
+        return code == side.code;
     }
 
     /**
-     * Returns a copy of the side.
-     * 
+     * Returns a copy of the side. The sides are immutable, so the shared side with
+     * the same figures is returned.
+     *
      * @return a copy of the side
      */
     @Override
     public SideDomino copy() {
-        return new SideDomino(new int[] { fig[0], fig[1], fig[2] });
+        return SIDES[code];
     }
 
     @Override
     public String toString() {
-        return fig[0] + " " + fig[1] + " " + fig[2];
+        return (code & 0b11) + " " + ((code >>> 2) & 0b11) + " " + (code >>> 4);
     }
 
 }
@@ -1,62 +1,109 @@
 package domino.model;
 
+import java.util.random.RandomGenerator;
+
+import exceptions.UnableToTurnException;
 import interfaces.Placeable;
 import shared.model.Tile;
 import utils.StringOperations;
 
 /**
  * This class represents a domino tile.
+ *
+ * <p>
+ * The four sides are packed in the 24 lower bits of an {@code int}: the side in
+ * the direction {@code d} (see {@link Placeable#directionToInt(Direction)}) is
+ * the 6 bits code of a {@link SideDomino} stored from the bit {@code 6d}.
+ * Turning the tile is a permutation of these bits and matching two sides is a
+ * comparison of integers.
+ * </p>
  */
 public class TileDomino extends Tile<SideDomino> {
     // Attributes
     public static final int LENGTH_OF_LINE = 10; // The length of the line in the getStringRepresentation method.
     public static final int COLUMNS_LENGTH = 7; // The length of the columns in the getStringRepresentation method.
 
+    public static final int NB_CODES = 1 << 24; // Number of different packed tiles
+
+    private static final int SIDE_MASK = 0b111111;
+    private static final int SIDES_0_AND_2 = 0x03F03F; // Bits of the upper and lower sides
+
+    private int packed; // The packed sides of the tile
+
     // Constructors
     public TileDomino(SideDomino[] tab) {
         if (validSides(tab)) {
-            this.sides = tab;
+            setAllSides(tab);
         } else {
             throw new IllegalArgumentException("The sides of the tile are not valid");
         }
     }
 
     /**
-     * Creates a random tile with random figures on each side
+     * Creates a tile from its packed sides.
+     *
+     * @param packed The packed sides, see {@link #getPacked()}
      */
-    public TileDomino() {
-        this.sides = new SideDomino[4];
-        for (int i = 0; i < 4; i++)
-            this.sides[i] = new SideDomino();
+    public TileDomino(int packed) {
+        if (packed < 0 || packed >= NB_CODES)
+            throw new IllegalArgumentException("The sides of the tile are not valid");
+
+        this.packed = packed;
+    }
+
+    /**
+     * Creates a random tile with random figures on each side, generated with
+     * {@code random}
+     */
+    public TileDomino(RandomGenerator random) {
+        packed = randomPacked(random);
     }
 
     /**
-     * Creates a tile linked to {@code side} with the same figures on one side
+     * Creates a tile linked to {@code side} with the same figures on one side, the
+     * other sides being generated with {@code random}
      */
-    public TileDomino(SideDomino side, Direction direction) {
-        this();
+    public TileDomino(SideDomino side, Direction direction, RandomGenerator random) {
+        this(random);
         this.setSide(side, Placeable.getOpposite(direction));
     }
 
     /**
-     * Creates a tile with the given figures on each side of {@code sides}
+     * Creates a tile with the given figures on each side of {@code sides}, the
+     * other sides being generated with {@code random}
      */
-    public TileDomino(SideDomino[] sides, Direction[] directions) {
-        this(); // generate random sides first
+    public TileDomino(SideDomino[] sides, Direction[] directions, RandomGenerator random) {
+        this(random); // generate random sides first
         for (int i = 0; i < sides.length; i++)
             this.setSide(sides[i], directions[i]); // then set the sides given
     }
 
     // Getters
 
+    /**
+     * Returns a new array of the sides of the tile.
+     */
     @Override
     public SideDomino[] getSides() {
-        return sides;
+        return new SideDomino[] { getSide(0), getSide(1), getSide(2), getSide(3) };
     }
 
     @Override
     public SideDomino getSide(Direction direction) {
-        return sides[Placeable.directionToInt(direction)];
+        return getSide(Placeable.directionToInt(direction));
+    }
+
+    private SideDomino getSide(int direction) {
+        return SideDomino.of(sideCode(packed, direction));
+    }
+
+    /**
+     * Returns the packed sides of the tile.
+     *
+     * @return The packed sides of the tile
+     */
+    public int getPacked() {
+        return packed;
     }
 
     // Setters
@@ -65,19 +112,125 @@ public class TileDomino extends Tile<SideDomino> {
         this.id = id;
     }
 
-    @Override
+    /**
+     * The sides of the tile are replaced by {@code tab}.
+     * 
+     * @param tab the new sides of the tile
+     */
     public void setAllSides(SideDomino[] tab) {
         validSides(tab);
-        this.sides = tab;
+        packed = 0;
+        for (int i = 0; i < 4; i++)
+            packed |= tab[i].getCode() << (6 * i);
     }
 
-    @Override
+    /**
+     * Sets the side of the tile in the direction {@code direction} to
+     * {@code side}.
+     * 
+     * @param side      the side to set
+     * @param direction the direction of the side to set
+     */
     public void setSide(SideDomino side, Direction direction) {
-        this.sides[Placeable.directionToInt(direction)] = side;
+        packed = withSide(packed, Placeable.directionToInt(direction), side.getCode());
     }
 
     // Methods
 
+    /**
+     * Returns the code of the side in the direction {@code direction} of the
+     * packed tile {@code packed}.
+     *
+     * @param packed    The packed tile
+     * @param direction The direction, see
+     *                  {@link Placeable#directionToInt(Direction)}
+     * @return The code of the side
+     */
+    public static int sideCode(int packed, int direction) {
+        return (packed >>> (6 * direction)) & SIDE_MASK;
+    }
+
+    /**
+     * Returns a random packed tile. The 4 sides being independent and uniform, it
+     * is a uniform code.
+     *
+     * @param random The generator to use
+     * @return A random packed tile
+     */
+    public static int randomPacked(RandomGenerator random) {
+        return random.nextInt(NB_CODES);
+    }
+
+    /**
+     * Returns the packed tile {@code packed} with the side in the direction
+     * {@code direction} replaced by the side of code {@code code}.
+     *
+     * @param packed    The packed tile
+     * @param direction The direction, see
+     *                  {@link Placeable#directionToInt(Direction)}
+     * @param code      The code of the new side
+     * @return The packed tile with the new side
+     */
+    public static int withSide(int packed, int direction, int code) {
+        int shift = 6 * direction;
+        return (packed & ~(SIDE_MASK << shift)) | (code << shift);
+    }
+
+    /**
+     * Returns the packed tile {@code packed} turned right once.
+     *
+     * @param packed The packed tile
+     * @return The turned packed tile
+     */
+    public static int rotateRight(int packed) {
+        // The left side goes up, the upper side goes right...
+        int rotated = ((packed << 6) | (packed >>> 18)) & (NB_CODES - 1);
+
+        // ... and the sides which arrive on the upper and lower sides are read in the
+        // reverse order
+        return reverseSides0And2(rotated);
+    }
+
+    /**
+     * Returns the packed tile {@code packed} turned left once.
+     *
+     * @param packed The packed tile
+     * @return The turned packed tile
+     */
+    public static int rotateLeft(int packed) {
+        int rotated = (packed >>> 6) | ((packed << 18) & (NB_CODES - 1));
+
+        // The sides which arrive on the right and left sides are read in the reverse
+        // order
+        return (rotated & SIDES_0_AND_2) | ((reverseSides0And2(rotated >>> 6) << 6) & ~SIDES_0_AND_2);
+    }
+
+    /**
+     * Reverses the order of the figures of the upper and lower sides of a packed
+     * tile, by swapping the first and the last figure of these sides.
+     */
+    private static int reverseSides0And2(int packed) {
+        return (packed & ~0x033033) | ((packed & 0x003003) << 4) | ((packed >>> 4) & 0x003003);
+    }
+
+    @Override
+    public void turnLeft(int n) throws UnableToTurnException {
+        if (isPlaced)
+            throw new UnableToTurnException();
+
+        for (int i = 0; i < n % 4; i++)
+            packed = rotateLeft(packed);
+    }
+
+    @Override
+    public void turnRight(int n) throws UnableToTurnException {
+        if (isPlaced)
+            throw new UnableToTurnException();
+
+        for (int i = 0; i < n % 4; i++)
+            packed = rotateRight(packed);
+    }
+
     @Override
     public boolean validSides(SideDomino[] tab) {
         if (tab.length != 4) {
@@ -93,28 +246,28 @@ public class TileDomino extends Tile<SideDomino> {
 
     @Override
     public boolean doesSideMatch(SideDomino side, Direction direction) {
-        return sides[Placeable.directionToInt(direction)].hasSameFig(side);
+        return sideCode(packed, Placeable.directionToInt(direction)) == side.getCode();
     }
 
     /**
      * Returns a list of strings which represents the tile.
      * Every element of the list represents a line of the tile.
-     * 
+     *
      * @return a list of strings which represents the tile
      */
     public String[] getStringRepresentation() {
 
-        String line0 = " |" + sides[0] + "|  ";
+        String line0 = " |" + getSide(0) + "|  ";
 
-        String[] sideValues1 = sides[1].toString().split(" ");
-        String[] sideValues3 = sides[3].toString().split(" ");
+        String[] sideValues1 = getSide(1).toString().split(" ");
+        String[] sideValues3 = getSide(3).toString().split(" ");
         String vide = StringOperations.repeat(" ", 5);
 
         String line3 = sideValues3[0] + "|" + vide + "|" + sideValues1[0] + " ";
         String line5 = sideValues3[1] + "|" + " " + String.format("%03d", id) + " " + "|" + sideValues1[1] + " ";
         String line7 = sideValues3[2] + "|" + vide + "|" + sideValues1[2] + " ";
 
-        String line9 = " |" + sides[2] + "|  ";
+        String line9 = " |" + getSide(2) + "|  ";
         String separatorLine = "--" + StringOperations.repeat("-", 5) + "-- ";
 
         return new String[] { line0, separatorLine, line3, line5, line7, separatorLine, line9 };
@@ -132,6 +285,6 @@ public class TileDomino extends Tile<SideDomino> {
 
     @Override
     public TileDomino copy() {
-        return new TileDomino(new SideDomino[] { sides[0].copy(), sides[1].copy(), sides[2].copy(), sides[3].copy() });
+        return new TileDomino(packed);
     }
 }
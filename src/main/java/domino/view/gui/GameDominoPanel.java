@@ -1,10 +1,7 @@
 package domino.view.gui;
 
-import java.awt.EventQueue;
-
 import javax.swing.JFrame;
 import javax.swing.JLabel;
-import javax.swing.JOptionPane;
 
 import domino.model.BotDomino;
 import domino.model.GameDomino;
@@ -32,7 +29,7 @@ public class GameDominoPanel extends GamePanel<SideDomino, TileDomino> {
         init();
 
         if (gameModel.getCurrentPlayer() instanceof BotDomino) {
-            EventQueue.invokeLater(this::updateBot);
+            updateBot();
         }
 
     }
@@ -99,25 +96,36 @@ public class GameDominoPanel extends GamePanel<SideDomino, TileDomino> {
         }
     }
 
+    /**
+     * Schedules the turn of the current player, a bot: its move is computed by the
+     * scheduler, then played by {@link #playBotMove(BotDomino, Long)} on the event
+     * dispatch thread.
+     */
     private void updateBot() {
         BotDomino bot = (BotDomino) gameModel.getCurrentPlayer();
+        GameDomino game = (GameDomino) gameModel;
 
-        String message;
-        try {
-            bot.play((GameDomino) gameModel);
-            message = "Bot " + bot.getName() + " has placed a tile. " + bot.getName() + " has " + bot.getScore()
-                    + " points.";
-
-        } catch (Exception e) {
-            message = ("Bot " + bot.getName() + " has passed.");
-        }
+        infoScreenLabel.setText("Bot " + bot.getName() + " is playing.");
 
-        JOptionPane.showMessageDialog(this, message, "", JOptionPane.INFORMATION_MESSAGE);
+        scheduler.schedule(() -> chooseBotMove(game, bot), move -> playBotMove(bot, move));
+    }
 
-        revalidate();
-        repaint();
+    private void playBotMove(BotDomino bot, Long move) {
+        String message = "Bot " + bot.getName() + " has passed.";
+
+        if (move != null) {
+            try {
+                bot.playMove((GameDomino) gameModel, move);
+                message = "Bot " + bot.getName() + " has placed a tile. " + bot.getName() + " has "
+                        + bot.getScore() + " points.";
+            } catch (Exception e) {
+                // The bot passes
+            }
+        }
 
         updateGameRound();
+
+        infoScreenLabel.setText(message);
     }
 
     /**
@@ -139,6 +147,8 @@ public class GameDominoPanel extends GamePanel<SideDomino, TileDomino> {
 
     @Override
     protected void endGame() {
+        scheduler.shutdown();
+
         EndMenuDomino endMenu = new EndMenuDomino(gameModel.getNbPlayers(), gameModel.getWinners(),
                 gameModel.getRanking(), homeMenu, frame);
         frame.setContentPane(endMenu);
@@ -1,8 +1,6 @@
 package domino.view.gui;
 
 import java.awt.GridBagLayout;
-import java.util.HashSet;
-import java.util.Set;
 
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -160,16 +158,10 @@ public class SettingsDomino extends Settings {
         public void generatePlayers() {
             players = new PlayerDomino[totalNumberOfPlayers];
 
-            Set<String> botNames = new HashSet<>();
-
             for (int i = 0; i < totalNumberOfPlayers; i++) {
                 if (i < numberOfBots) {
-                    // Takes care of bot naming an duplicates
+                    // The bots are named by the game
                     players[i] = new BotDomino();
-                    while (botNames.contains(players[i].getName())) {
-                        ((BotDomino) players[i]).changeName();
-                    }
-                    botNames.add(players[i].getName());
                 } else {
                     players[i] = new PlayerDomino();
                 }
@@ -62,6 +62,32 @@ public interface Placeable<T extends Side> {
         return true;
     }
 
+    /**
+     * Returns true if the tile can be placed next to {@code neighbors}. This is the
+     * allocation-free version of {@link #canBePlaced(List)}.
+     * 
+     * @param neighbors The neighbors indexed by their direction, following
+     *                  {@link #directionToInt(Direction)}, {@code null} if there is
+     *                  no neighbor in a direction
+     * @return True if the tile has at least one neighbor and can be placed
+     */
+    public default boolean canBePlaced(Placeable<T>[] neighbors) {
+        boolean hasNeighbor = false;
+
+        for (int i = 0; i < 4; i++) {
+            if (neighbors[i] == null)
+                continue;
+
+            Direction direction = intToDirection(i);
+            if (!doesSideMatch(neighbors[i].getSide(getOpposite(direction)), direction))
+                return false;
+
+            hasNeighbor = true;
+        }
+
+        return hasNeighbor;
+    }
+
     /**
      * Checks if the object can be placed on the board after a certain amount of
      * rotations.
@@ -72,6 +98,18 @@ public interface Placeable<T extends Side> {
      */
     public boolean canBePlacedWithRotation(List<Pair<Placeable<T>, Direction>> tiles);
 
+    /**
+     * Checks if the object can be placed next to {@code neighbors} after a certain
+     * amount of rotations. This is the allocation-free version of
+     * {@link #canBePlacedWithRotation(List)}.
+     * 
+     * @param neighbors The neighbors indexed by their direction, see
+     *                  {@link #canBePlaced(Placeable[])}
+     * @return {@code true} if the object could be placed after a certain amount of
+     *         rotations
+     */
+    public boolean canBePlacedWithRotation(Placeable<T>[] neighbors);
+
     /**
      * Returns the opposite direction of the direction {@code direction}.
      * 
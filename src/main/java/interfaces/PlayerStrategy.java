@@ -0,0 +1,27 @@
+package interfaces;
+
+import shared.model.Game;
+import shared.model.MoveList;
+
+/**
+ * This interface represents the way a player chooses its moves, without any
+ * input or output, so that a game can be played by a
+ * {@link shared.model.GameRunner}. The bots are strategies for themselves, and a
+ * strategy can also be written as a lambda.
+ */
+@FunctionalInterface
+public interface PlayerStrategy<G extends Game<?, ?>> {
+
+    /**
+     * Chooses the move of the current player of {@code game}. The strategy must
+     * not change the game nor keep {@code moves}, which is reused for the next
+     * turns. A strategy may keep buffers between its calls, so it must not be used
+     * by two threads at once.
+     *
+     * @param game  The game
+     * @param moves The legal moves of the tile to place, at least one, see
+     *              {@link Game#generateMoves(MoveList)}
+     * @return The chosen move, one of {@code moves}
+     */
+    public long chooseMove(G game, MoveList moves);
+}
@@ -1,11 +1,94 @@
 package shared.model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.random.RandomGenerator;
 
 public abstract class Deck<S extends Side, T extends Tile<S>> {
      // Attributes
-     protected ArrayList<T> tiles; // Tiles in the deck
+     protected ArrayList<T> tiles; // Tiles in the deck, the tiles before next are already drawn
+     protected int next = 0; // Index of the tile at the top of the deck
+
+     protected RandomGenerator random; // Source of randomness of the deck
+
+     // Constructors
+
+     /**
+      * Creates a deck which uses {@code random} to be generated and shuffled, so
+      * that a seeded generator gives the same deck each time.
+      *
+      * @param random The generator of the deck
+      */
+     protected Deck(RandomGenerator random) {
+          if (random == null)
+               throw new IllegalArgumentException("The random generator is null");
+
+          this.random = random;
+     }
+
+     // Getters
+
+     /**
+      * Returns a read-only view of the tiles left in the deck, the first one being
+      * the top of the deck.
+      *
+      * @return the tiles left in the deck
+      */
+     public List<T> getRemainingTiles() {
+          return new AbstractList<T>() {
+               @Override
+               public T get(int index) {
+                    if (index < 0 || index >= size())
+                         throw new IndexOutOfBoundsException(index);
+
+                    return tileAt(next + index);
+               }
+
+               @Override
+               public int size() {
+                    return Deck.this.size();
+               }
+          };
+     }
+
+     // Setters
+
+     public void setRandomGenerator(RandomGenerator random) {
+          if (random == null)
+               throw new IllegalArgumentException("The random generator is null");
+
+          this.random = random;
+     }
+
+     // Storage
+
+     // The tiles are stored in tiles by default. A deck may store them otherwise,
+     // for example packed in an array of primitives, by overriding these methods.
+
+     /**
+      * Returns the total number of tiles of the deck, drawn or not.
+      */
+     protected int totalSize() {
+          return tiles.size();
+     }
+
+     /**
+      * Returns the tile at the index {@code i} of the storage.
+      */
+     protected T tileAt(int i) {
+          return tiles.get(i);
+     }
+
+     /**
+      * Swaps the tiles at the indexes {@code i} and {@code j} of the storage.
+      */
+     protected void swap(int i, int j) {
+          T temp = tiles.get(i);
+          tiles.set(i, tiles.get(j));
+          tiles.set(j, temp);
+     }
 
      // Methods
 
@@ -20,7 +103,7 @@ public abstract class Deck<S extends Side, T extends Tile<S>> {
       * @return the number of dominoes left in the deck
       */
      public int size() {
-          return tiles.size();
+          return totalSize() - next;
      }
 
      /**
@@ -29,31 +112,43 @@ public abstract class Deck<S extends Side, T extends Tile<S>> {
       * @return {@code true} if the deck is empty, {@code false} otherwise.
       */
      public boolean isEmpty() {
-          return tiles.isEmpty();
+          return next >= totalSize();
      }
 
      /**
-      * Shuffles the deck.
+      * Shuffles the tiles left in the deck with the Fisher-Yates algorithm, every
+      * order being equally likely.
       */
      public void shuffle() {
-          Random rand = new Random();
-
-          for (int i = 0; i < tiles.size(); i++) {
-               int j = rand.nextInt(tiles.size());
-
-               T temp = tiles.get(i);
-               tiles.set(i, tiles.get(j));
-               tiles.set(j, temp);
+          for (int i = totalSize() - 1; i > next; i--) {
+               swap(i, next + random.nextInt(i - next + 1));
           }
      }
 
      /**
       * Returns the domino at the top of the deck
-      * 
+      *
       * @return the domino at the top of the deck
+      * @throws NoSuchElementException If the deck is empty
       */
      public T draw() {
-          return tiles.remove(0);
+          if (isEmpty())
+               throw new NoSuchElementException("The deck is empty");
+
+          return tileAt(next++);
+     }
+
+     /**
+      * Puts the last tile drawn back at the top of the deck, which undoes the last
+      * {@link #draw()}.
+      *
+      * @throws IllegalStateException If no tile has been drawn
+      */
+     public void undoDraw() {
+          if (next == 0)
+               throw new IllegalStateException("No tile has been drawn");
+
+          next--;
      }
 
 }
@@ -1,15 +1,25 @@
 package shared.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import exceptions.TileNotFoundException;
 import exceptions.UnableToTurnException;
 import interfaces.Placeable;
+import interfaces.PlayerStrategy;
 import interfaces.Placeable.Direction;
 import utils.Expandable2DArray;
 import utils.Pair;
 import utils.TriConsumer;
+import utils.Zobrist;
 
 public abstract class Game<S extends Side, T extends Tile<S>> {
 
@@ -26,21 +36,129 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
     protected Expandable2DArray<T> board; // Board of the game
 
     protected T currentTile; // Current tile on the board
-    protected Pair<Integer, Integer> currentPosition; // Current position of the current tile on the board
+    // Current position of the current tile on the board. The coordinates are
+    // signed and the first tile of the board is at 0,0, so they stay valid when
+    // the board expands
+    protected Pair<Integer, Integer> currentPosition;
     protected T tileToPlace; // Tile to place
 
+    // Buffer for the neighbors of a cell, see getNeighborsFromPosition
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected final Placeable<S>[] neighborsBuffer = new Placeable[4];
+
+    // Positions of the tiles placed by each player, in the order they were placed
+    protected Map<Player, List<Pair<Integer, Integer>>> placementsByPlayer = new HashMap<>();
+
     protected int currentPlayer; // Index of the current player
 
     protected int nbRounds = 0; // Number of rounds played
 
     protected boolean isGameOn = true; // Whether the game is on or not
 
+    // Seed of the session. Every random decision of the game (the decks, their
+    // shuffles, the bots) uses a stream split from the generator of the seed, so two
+    // sessions with the same seed and the same inputs are identical
+    protected long seed;
+    protected SplittableRandom sessionRandom; // Generator of the session
+    protected Map<Player, RandomGenerator> randomByPlayer = new HashMap<>(); // Stream of each player
+
+    // Each move pushes a frame of the state of the game before it on the undo
+    // stack, see undoMove. The frame is made of the following values, then of the
+    // scores of the players
+    private static final int FRAME_X = 0; // Position of the tile placed
+    private static final int FRAME_Y = 1;
+    private static final int FRAME_POSITION_X = 2; // Current position
+    private static final int FRAME_POSITION_Y = 3;
+    private static final int FRAME_PLAYER = 4; // Current player
+    private static final int FRAME_PLACER = 5; // Index of the player who placed the tile
+    private static final int FRAME_ROUNDS = 6;
+    private static final int FRAME_GAME_ON = 7;
+    private static final int FRAME_DECK = 8; // Number of tiles in the deck
+    private static final int FRAME_ROTATION = 9; // Rotations made by makeMove before placing the tile
+    private static final int FRAME_PASSED = 10; // Whether the tile was not placed
+    private static final int FRAME_HASH_LOW = 11; // Hash of the board
+    private static final int FRAME_HASH_HIGH = 12;
+    private static final int FRAME_SCORES = 13;
+
+    private int[] undoStack = new int[64];
+    private int undoSize = 0;
+    private final List<T> passedTiles = new ArrayList<>(); // Tiles not placed by passMove
+
+    // Zobrist hash of the tiles on the board, updated by place and restored by
+    // undoMove, see getHash
+    private long boardHash;
+
     // Getters
 
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the random generator of {@code player}, split from the generator of
+     * the session. The bots must use it for their random decisions so that the
+     * session stays reproducible.
+     * 
+     * @param player The player
+     * @return The random generator of the player
+     */
+    public RandomGenerator getRandomGenerator(Player player) {
+        return randomByPlayer.computeIfAbsent(player, p -> sessionRandom.split());
+    }
+
     public int getNbPlayers() {
         return players.length;
     }
 
+    /**
+     * Returns the player at the index {@code index} of the order of the turns.
+     * 
+     * @param index The index, between 0 and {@link #getNbPlayers()} - 1
+     * @return The player
+     */
+    public Player getPlayer(int index) {
+        return players[index];
+    }
+
+    /**
+     * Returns the Zobrist hash of the tiles on the board: the XOR of the keys of
+     * {@link Zobrist#placement(int, int, long)} of each tile, its content being
+     * given by {@link #tileKey(Tile)}. It does not depend on the order in which
+     * the tiles were placed.
+     * 
+     * @return The hash of the board
+     */
+    public long getBoardHash() {
+        return boardHash;
+    }
+
+    /**
+     * Returns the Zobrist hash of the position: the board, the player to move and
+     * the scores of the players. Two positions reached by different orders of the
+     * same moves have the same hash, so a search can find the positions it has
+     * already searched. The tile to place is not in the hash.
+     * 
+     * @return The hash of the position
+     */
+    public long getHash() {
+        long hash = boardHash ^ Zobrist.player(currentPlayer);
+
+        for (int p = 0; p < players.length; p++) {
+            hash ^= Zobrist.score(p, players[p].getScore());
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns the number of moves which can be undone with {@link #undoMove()}.
+     * 
+     * @return The number of placements and passes since the beginning of the game
+     */
+    public int getNbUndoableMoves() {
+        return undoSize / frameSize();
+    }
+
     /**
      * Returns the current tile on the board.
      * 
@@ -114,10 +232,37 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
         return players[currentPlayer];
     }
 
+    /**
+     * Returns the position of the current tile on the board. The first tile of the
+     * board is at 0,0.
+     * 
+     * @return The position of the current tile on the board
+     */
     public Pair<Integer, Integer> getCurrentPosition() {
         return currentPosition;
     }
 
+    /**
+     * Returns the position of the tile with the given id on the board.
+     * 
+     * @param id Id of the tile
+     * @return The position of the tile, {@code null} if it is not on the board
+     */
+    public Pair<Integer, Integer> getPosition(int id) {
+        return board.findIndex(id);
+    }
+
+    /**
+     * Returns the positions of the tiles placed by {@code player}, in the order
+     * they were placed.
+     * 
+     * @param player The player
+     * @return The positions of the tiles placed by {@code player}
+     */
+    public List<Pair<Integer, Integer>> getPlacements(Player player) {
+        return Collections.unmodifiableList(placementsByPlayer.getOrDefault(player, Collections.emptyList()));
+    }
+
     /**
      * Returns the player(s) with the highest score.
      * 
@@ -188,6 +333,79 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
      */
     public abstract void initGame(boolean resetScore);
 
+    /**
+     * Returns a new seed, for the sessions created without one.
+     * 
+     * @return A random seed
+     */
+    protected static long randomSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * Initializes the generator of the session with {@code seed} and splits one
+     * stream for each player, in the order of the players. The bots are named
+     * with their stream, each with a name which no other player has. Must be
+     * called once the players are set and before the deck is created.
+     * 
+     * @param seed The seed of the session
+     */
+    protected void initRandom(long seed) {
+        this.seed = seed;
+        sessionRandom = new SplittableRandom(seed);
+
+        randomByPlayer.clear();
+        for (Player player : players) {
+            randomByPlayer.put(player, sessionRandom.split());
+        }
+
+        // The names of the other players are taken first
+        Set<String> names = new HashSet<>();
+        for (Player player : players) {
+            if (!(player instanceof PlayerStrategy) && player.getName() != null) {
+                names.add(player.getName().toLowerCase());
+            }
+        }
+
+        for (Player player : players) {
+            if (player instanceof PlayerStrategy) {
+                RandomGenerator random = randomByPlayer.get(player);
+                String name = Player.randomBotName(random);
+                while (!names.add(name.toLowerCase())) {
+                    name = Player.randomBotName(random);
+                }
+                player.setName(name);
+            }
+        }
+    }
+
+    /**
+     * Returns a new stream split from the generator of the session, for example to
+     * create or shuffle a deck.
+     * 
+     * @return A new random generator
+     */
+    protected RandomGenerator splitRandom() {
+        return sessionRandom.split();
+    }
+
+    /**
+     * Creates a new board with {@code firstTile} on it, at 0,0. The tiles of the
+     * board are indexed by their id.
+     * 
+     * @param firstTile The first tile of the board
+     */
+    protected void initBoard(T firstTile) {
+        currentTile = firstTile;
+        currentPosition = new Pair<>(0, 0);
+
+        board = new Expandable2DArray<>(currentTile, Tile::getId);
+        boardHash = Zobrist.placement(0, 0, tileKey(firstTile));
+        placementsByPlayer.clear();
+        undoSize = 0;
+        passedTiles.clear();
+    }
+
     /**
      * Moves the current tile on the board in the given direction once.
      * 
@@ -205,10 +423,10 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
      * @throws TileNotFoundException If the tile is not on the board
      */
     public void move(int id) throws TileNotFoundException {
-        Pair<Integer, Integer> position = board.findIndex(t -> t != null && t.getId() == id);
+        Pair<Integer, Integer> position = board.findIndex(id);
 
         if (position == null)
-            throw new TileNotFoundException();
+            throw new TileNotFoundException(id);
 
         this.currentPosition = position;
         this.currentTile = board.get(currentPosition);
@@ -253,7 +471,8 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
     }
 
     /**
-     * Places the tile to place on the board at the given position.
+     * Places the tile to place on the board at the given position. The
+     * coordinates are board coordinates, the first tile being at 0,0.
      * 
      * @param x X position of the tile
      * @param y Y position of the tile
@@ -263,27 +482,281 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
 
         handlePlaceInputErrors(x, y);
 
-        List<Pair<Placeable<S>, Direction>> neighbors = getNeighborsFromPosition(x, y);
-
-        if (neighbors.isEmpty())
+        if (getNeighborsFromPosition(x, y, neighborsBuffer) == 0)
             throw new IllegalArgumentException("The tile must be placed next to another tile");
 
-        if (!tileToPlace.canBePlaced(neighbors))
+        if (!tileToPlace.canBePlaced(neighborsBuffer))
             throw new IllegalArgumentException("The tile cannot be placed at this position");
 
+        pushFrame(x, y, player);
         board.add(x, y, tileToPlace);
+        boardHash ^= Zobrist.placement(x, y, tileKey(tileToPlace));
 
         tileToPlace.setPlaced(true);
 
-        // Takes care of the coordinates of the current tile if the board has been
-        // expanded
-        if (x == -1)
-            x = 0;
-        if (y == -1)
-            y = 0;
-
         currentPosition = new Pair<>(x, y);
         currentTile = tileToPlace;
+
+        placementsByPlayer.computeIfAbsent(player, p -> new ArrayList<>()).add(currentPosition);
+    }
+
+    /**
+     * Plays a whole turn of the current player: turns the tile to place
+     * {@code rotation} times to the right, places it at the given position, then
+     * ends the round, or the game if the deck is empty. The move can be undone
+     * with {@link #undoMove()}, so a search can play and undo moves on the game
+     * itself instead of copying it.
+     * 
+     * @param x        X position of the tile
+     * @param y        Y position of the tile
+     * @param rotation Number of rotations to the right, between 0 and 3
+     * @throws TileNotFoundException If there is no tile to place
+     */
+    public void makeMove(int x, int y, int rotation) throws TileNotFoundException {
+        checkMove(rotation);
+        turnTile(rotation);
+
+        try {
+            place(x, y, getCurrentPlayer());
+        } catch (TileNotFoundException | RuntimeException e) {
+            turnTile(-rotation);
+            throw e;
+        }
+
+        endMove(rotation);
+    }
+
+    /**
+     * Plays a move packed as described in {@link MoveList}, like
+     * {@link #makeMove(int, int, int)}.
+     * 
+     * @param move The packed move
+     * @throws TileNotFoundException If there is no tile to place
+     */
+    public void makeMove(long move) throws TileNotFoundException {
+        if (MoveList.getPawnSpot(move) != MoveList.NO_PAWN)
+            throw new IllegalArgumentException("There is no pawn in this game");
+
+        makeMove(MoveList.getX(move), MoveList.getY(move), MoveList.getRotation(move));
+    }
+
+    /**
+     * Plays a whole turn of the current player without placing the tile to place:
+     * the round, or the game if the deck is empty, is over. The pass can be
+     * undone with {@link #undoMove()}.
+     * 
+     * @throws TileNotFoundException If there is no tile to place
+     */
+    public void passMove() throws TileNotFoundException {
+        checkMove(0);
+
+        pushFrame(0, 0, null);
+        undoStack[undoSize - frameSize() + FRAME_PASSED] = 1;
+        passedTiles.add(tileToPlace);
+        recordPass();
+
+        endMove(0);
+    }
+
+    /**
+     * Throws an exception if the tile to place cannot be moved.
+     * 
+     * @param rotation Number of rotations to the right
+     * @throws TileNotFoundException If there is no tile to place
+     */
+    protected void checkMove(int rotation) throws TileNotFoundException {
+        if (rotation < 0 || rotation > 3)
+            throw new IllegalArgumentException("The rotation must be between 0 and 3");
+
+        if (tileToPlace == null)
+            throw new TileNotFoundException();
+
+        if (tileToPlace.isPlaced())
+            throw new IllegalStateException("The tile to place is already placed");
+    }
+
+    /**
+     * Turns the tile to place {@code rotation} times to the right, or to the left
+     * if {@code rotation} is negative.
+     */
+    protected void turnTile(int rotation) {
+        try {
+            if (rotation >= 0)
+                tileToPlace.turnRight(rotation);
+            else
+                tileToPlace.turnLeft(-rotation);
+        } catch (UnableToTurnException e) {
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+    /**
+     * Ends the move which has just placed the tile: the rotation is recorded to
+     * be undone with the placement, then the round, or the game if the deck is
+     * empty, is over.
+     * 
+     * @param rotation Number of rotations to the right made before placing the
+     *                 tile
+     */
+    protected void endMove(int rotation) {
+        undoStack[undoSize - frameSize() + FRAME_ROTATION] = rotation;
+
+        if (deck.isEmpty())
+            endGame();
+        else
+            updateGameRound();
+    }
+
+    /**
+     * Undoes the last placement or pass and everything which happened after it:
+     * the board (its bounds and its frontier included), the deck, the current
+     * position, the current player, the number of rounds and the scores are the
+     * same as before the move. The tile is the tile to place again, turned back if
+     * it was placed with {@link #makeMove(int, int, int)}.
+     * 
+     * @throws IllegalStateException If there is no move to undo
+     */
+    public void undoMove() {
+        if (undoSize == 0)
+            throw new IllegalStateException("There is no move to undo");
+
+        int frame = undoSize - frameSize();
+        T tile;
+
+        if (undoStack[frame + FRAME_PASSED] != 0) {
+            tile = passedTiles.remove(passedTiles.size() - 1);
+            undoPass();
+        } else {
+            int x = undoStack[frame + FRAME_X];
+            int y = undoStack[frame + FRAME_Y];
+            tile = board.get(x, y);
+
+            undoPlacement(tile, x, y);
+            board.undoAdd();
+            tile.setPlaced(false);
+        }
+
+        while (deck.size() < undoStack[frame + FRAME_DECK]) {
+            deck.undoDraw();
+        }
+
+        tileToPlace = tile;
+        turnTile(-undoStack[frame + FRAME_ROTATION]);
+
+        int placer = undoStack[frame + FRAME_PLACER];
+        if (placer >= 0) {
+            List<Pair<Integer, Integer>> placements = placementsByPlayer.get(players[placer]);
+            placements.remove(placements.size() - 1);
+        }
+
+        currentPosition = new Pair<>(undoStack[frame + FRAME_POSITION_X], undoStack[frame + FRAME_POSITION_Y]);
+        currentTile = board.isOutOfBounds(currentPosition) ? null : board.get(currentPosition);
+
+        currentPlayer = undoStack[frame + FRAME_PLAYER];
+        nbRounds = undoStack[frame + FRAME_ROUNDS];
+        isGameOn = undoStack[frame + FRAME_GAME_ON] != 0;
+        boardHash = ((long) undoStack[frame + FRAME_HASH_HIGH] << 32)
+                | (undoStack[frame + FRAME_HASH_LOW] & 0xFFFFFFFFL);
+
+        for (int p = 0; p < players.length; p++) {
+            players[p].score = undoStack[frame + FRAME_SCORES + p];
+        }
+
+        undoSize = frame;
+    }
+
+    /**
+     * Undoes what a subclass did when the tile {@code tile} was placed at
+     * ({@code x}, {@code y}) and after. It is called by {@link #undoMove()} while
+     * the tile is still on the board, the subclasses undoing their own data before
+     * calling this method.
+     * 
+     * @param tile The tile placed
+     * @param x    X position of the tile
+     * @param y    Y position of the tile
+     */
+    protected void undoPlacement(T tile, int x, int y) {
+        // Nothing to undo here, the board and the state of the game are restored by
+        // undoMove
+    }
+
+    /**
+     * Returns the content of the tile {@code tile} in the hash of the board, see
+     * {@link #getBoardHash()}: what tells it apart from the other tiles placed on
+     * the same cell, its rotation included. It is called when the tile is placed.
+     * 
+     * @param tile The tile placed
+     * @return The content of the tile
+     */
+    protected abstract long tileKey(T tile);
+
+    /**
+     * Updates the hash of the board after the content of the tile at ({@code x},
+     * {@code y}) changed, see {@link #tileKey(Tile)}. The frame of the move keeps
+     * the hash from before the placement, so {@link #undoMove()} still restores it.
+     * 
+     * @param x           X position of the tile
+     * @param y           Y position of the tile
+     * @param previousKey The content of the tile in the hash until now
+     */
+    protected void rehashTile(int x, int y, long previousKey) {
+        boardHash ^= Zobrist.placement(x, y, previousKey) ^ Zobrist.placement(x, y, tileKey(board.get(x, y)));
+    }
+
+    /**
+     * Records what a subclass needs to undo a pass, the end of the turn included.
+     * It is called by {@link #passMove()} before the round, or the game, is over.
+     */
+    protected void recordPass() {
+        // Nothing to record here, the state of the game is in the frame
+    }
+
+    /**
+     * Undoes what a subclass did when the tile to place was passed and after. It
+     * is called by {@link #undoMove()} before the state of the game is restored.
+     */
+    protected void undoPass() {
+        // Nothing to undo here, the state of the game is restored by undoMove
+    }
+
+    private int frameSize() {
+        return FRAME_SCORES + players.length;
+    }
+
+    /**
+     * Pushes the state of the game before the placement of the tile to place at
+     * ({@code x}, {@code y}) by {@code player} on the undo stack.
+     */
+    private void pushFrame(int x, int y, Player player) {
+        int frame = undoSize;
+
+        if (frame + frameSize() > undoStack.length)
+            undoStack = Arrays.copyOf(undoStack, Math.max(undoStack.length * 2, frame + frameSize()));
+
+        int placer = -1;
+        for (int p = 0; p < players.length; p++) {
+            if (players[p] == player)
+                placer = p;
+        }
+
+        undoStack[frame + FRAME_X] = x;
+        undoStack[frame + FRAME_Y] = y;
+        undoStack[frame + FRAME_POSITION_X] = currentPosition.first;
+        undoStack[frame + FRAME_POSITION_Y] = currentPosition.second;
+        undoStack[frame + FRAME_PLAYER] = currentPlayer;
+        undoStack[frame + FRAME_PLACER] = placer;
+        undoStack[frame + FRAME_ROUNDS] = nbRounds;
+        undoStack[frame + FRAME_GAME_ON] = isGameOn ? 1 : 0;
+        undoStack[frame + FRAME_DECK] = deck.size();
+        undoStack[frame + FRAME_ROTATION] = 0;
+        undoStack[frame + FRAME_PASSED] = 0;
+        undoStack[frame + FRAME_HASH_LOW] = (int) boardHash;
+        undoStack[frame + FRAME_HASH_HIGH] = (int) (boardHash >>> 32);
+        for (int p = 0; p < players.length; p++) {
+            undoStack[frame + FRAME_SCORES + p] = players[p].getScore();
+        }
+
+        undoSize = frame + frameSize();
     }
 
     /**
@@ -295,7 +768,11 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
      * @throws TileNotFoundException If the tile to place is not on the board
      */
     public void place(int id, Direction direction, Player player) throws TileNotFoundException {
-        Pair<Integer, Integer> index = board.findIndex(t -> t != null && t.getId() == id);
+        Pair<Integer, Integer> index = board.findIndex(id);
+
+        if (index == null)
+            throw new TileNotFoundException(id);
+
         Placeable.updateCoordinatesFromDirection(index, direction);
 
         place(index.first, index.second, player);
@@ -315,9 +792,8 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
             if (arg2.matches("^\\d+") || arg2.matches("^-\\d+")) {
                 // The arguments given are coordinates of the tile to place on the board
                 // relative to the minimap
-                int dx = Integer.parseInt(arg1) - (NB_TILES_TO_SHOW / 2 + 1);
-                int dy = Integer.parseInt(arg2) - (NB_TILES_TO_SHOW / 2 + 1);
-                place(currentPosition.first + dx, currentPosition.second + dy, player);
+                Pair<Integer, Integer> position = minimapToBoard(Integer.parseInt(arg1), Integer.parseInt(arg2));
+                place(position.first, position.second, player);
             } else {
                 int id = Integer.parseInt(arg1);
                 Direction direction = Placeable.stringToDirection(arg2.toUpperCase());
@@ -330,6 +806,33 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
         }
     }
 
+    /**
+     * Converts the coordinates of a cell of the minimap, starting at 1 as shown to
+     * the players, to coordinates on the board.
+     * 
+     * @param line   Line of the cell in the minimap
+     * @param column Column of the cell in the minimap
+     * @return The coordinates of the cell on the board
+     */
+    public Pair<Integer, Integer> minimapToBoard(int line, int column) {
+        return new Pair<>(currentPosition.first + line - (NB_TILES_TO_SHOW / 2 + 1),
+                currentPosition.second + column - (NB_TILES_TO_SHOW / 2 + 1));
+    }
+
+    /**
+     * Converts coordinates on the board to the coordinates of the cell of the
+     * minimap, starting at 1 as shown to the players. The result can be outside of
+     * the minimap if the cell is not shown.
+     * 
+     * @param x X coordinate on the board
+     * @param y Y coordinate on the board
+     * @return The coordinates of the cell in the minimap
+     */
+    public Pair<Integer, Integer> boardToMinimap(int x, int y) {
+        return new Pair<>(x - currentPosition.first + (NB_TILES_TO_SHOW / 2 + 1),
+                y - currentPosition.second + (NB_TILES_TO_SHOW / 2 + 1));
+    }
+
     /**
      * Throws an exception if the tile to place is null, if the position is out of
      * bounds or if there is already a tile at this position.
@@ -364,6 +867,19 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
         return neighbors;
     }
 
+    /**
+     * Fills {@code neighbors} with the neighbors of the cell at the given
+     * position, indexed by their direction, without allocating anything.
+     * 
+     * @param x         X position of the cell
+     * @param y         Y position of the cell
+     * @param neighbors Buffer of 4 slots owned by the caller
+     * @return A mask of the directions which have a neighbor
+     */
+    public int getNeighborsFromPosition(int x, int y, Placeable<S>[] neighbors) {
+        return board.getNeighbors(x, y, neighbors);
+    }
+
     /**
      * Turns a tile {@code times} to the right if {@code clockwise} is {@code true}
      * and to the left otherwise.
@@ -448,38 +964,68 @@ public abstract class Game<S extends Side, T extends Tile<S>> {
     }
 
     /**
-     * Returns the list of possible locations where the tile can be placed.
+     * Returns the list of possible locations where the tile can be placed, in the
+     * order of {@link #generateMoves(MoveList)}.
      * 
      * @return List of possible locations
      */
     public List<Pair<Integer, Integer>> findPossiblePlacements() {
         List<Pair<Integer, Integer>> possibleLocations = new ArrayList<>();
+        MoveList moves = new MoveList();
 
-        // We create a copy of the tile to place so that we can rotate it without
-        // modifying the original tile
-        Tile<S> tileToPlaceCopy = tileToPlace.copy();
-
-        // We check all the coordinates of the board and the immediate cases around it
-        // (-1 and width/height)
-        for (int i = -1; i <= board.getWidth(); i++) {
-            for (int j = -1; j <= board.getHeight(); j++) {
-                // If there is no tile at the given position or if the position is out of bounds
-                // we check if the tile can be placed there
-                if (board.isOutOfBounds(i, j) || board.get(i, j) == null) {
-                    // We get the neighbors of the tile
-                    List<Pair<Placeable<S>, Direction>> neighbors = getNeighborsFromPosition(i, j);
-
-                    // We check if the tile can be placed ignoring the rotations
-                    // If it can, we add the position to the list of possible locations
-                    if (tileToPlaceCopy.canBePlacedWithRotation(neighbors)) {
-                        possibleLocations.add(new Pair<>(i, j));
-                    }
-                }
-            }
+        generateMoves(moves);
+
+        // The moves of a cell follow each other
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.get(i);
+
+            if (i == 0 || MoveList.getCell(move) != MoveList.getCell(moves.get(i - 1)))
+                possibleLocations.add(new Pair<>(MoveList.getX(move), MoveList.getY(move)));
         }
         return possibleLocations;
     }
 
+    /**
+     * Fills {@code moves} with every legal move of the current player, packed as
+     * described in {@link MoveList}, and returns their number. The rotations are
+     * counted from the current orientation of the tile to place, so a move can be
+     * given as it is to {@link #makeMove(long)}. The moves placing the tile in the
+     * same cell follow each other, and there is no move if the tile cannot be
+     * placed anywhere, the player having to pass.
+     * 
+     * <p>
+     * This version tries the 4 rotations on each cell of the frontier of the
+     * board. The games override it to skip the cells and the rotations which
+     * cannot fit, and the rotations which give the same tile as another one.
+     * </p>
+     * 
+     * @param moves The list to fill, cleared first
+     * @return The number of moves
+     */
+    public int generateMoves(MoveList moves) {
+        moves.clear();
+
+        if (tileToPlace == null || tileToPlace.isPlaced())
+            return 0;
+
+        for (int i = 0; i < board.getFrontierSize(); i++) {
+            long cell = board.getFrontierCell(i);
+            int x = Expandable2DArray.unpackX(cell);
+            int y = Expandable2DArray.unpackY(cell);
+
+            getNeighborsFromPosition(x, y, neighborsBuffer);
+
+            // After the 4 rotations the tile is back in its orientation
+            for (int rotation = 0; rotation < 4; rotation++) {
+                if (tileToPlace.canBePlaced(neighborsBuffer))
+                    moves.add(x, y, rotation, MoveList.NO_PAWN);
+                turnTile(1);
+            }
+        }
+
+        return moves.size();
+    }
+
     /**
      * Apply a function to the minimap. The function takes as argument the x
      * position of the tile, the y position of the tile and the tile itself.
@@ -0,0 +1,169 @@
+package shared.model;
+
+import java.util.List;
+
+import exceptions.TileNotFoundException;
+import interfaces.PlayerStrategy;
+
+/**
+ * Plays a whole game without any view: each turn, the legal moves of the tile to
+ * place are generated and the strategy of the current player chooses one, or the
+ * player passes if there is none. The moves are played with
+ * {@link Game#makeMove(long)} and {@link Game#passMove()}, so the runner only
+ * reuses its buffer of moves and allocates nothing more than the game itself.
+ *
+ * <p>
+ * A runner and its game must only be used by one thread at a time, but several
+ * runners on different games and strategies can run in parallel.
+ * </p>
+ */
+public class GameRunner<G extends Game<?, ?>> {
+
+    // Attributes
+
+    private final G game;
+    private final PlayerStrategy<? super G>[] strategies; // Strategy of each player, in the order of the turns
+    private final MoveList moves = new MoveList(); // Buffer for the moves
+
+    private boolean isOver = false; // Whether the last tile has been played
+    private int nbTurns = 0;
+    private final int[] passesByPlayer; // Passes of each player, in the order of the turns
+
+    /**
+     * Creates a runner of {@code game} where the player at the index {@code i} of
+     * the order of the turns plays with {@code strategies.get(i)}.
+     *
+     * @param game       The game, which has not started yet or whose current turn
+     *                   has not been played
+     * @param strategies The strategy of each player
+     * @throws IllegalArgumentException If there is not one strategy per player
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public GameRunner(G game, List<? extends PlayerStrategy<? super G>> strategies) {
+        if (strategies.size() != game.getNbPlayers())
+            throw new IllegalArgumentException("There must be one strategy per player");
+
+        for (PlayerStrategy<? super G> strategy : strategies) {
+            if (strategy == null)
+                throw new IllegalArgumentException("A strategy is null");
+        }
+
+        this.game = game;
+        this.strategies = strategies.toArray(new PlayerStrategy[0]);
+        passesByPlayer = new int[this.strategies.length];
+    }
+
+    /**
+     * Creates a runner of {@code game} where each player plays with its own
+     * strategy, as the bots do.
+     *
+     * @param game The game, whose players must all be strategies for it
+     * @return The runner
+     * @throws IllegalArgumentException If a player is not a strategy
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static <G extends Game<?, ?>> GameRunner<G> ofBots(G game) {
+        PlayerStrategy<? super G>[] strategies = new PlayerStrategy[game.getNbPlayers()];
+
+        for (int p = 0; p < strategies.length; p++) {
+            if (!(game.getPlayer(p) instanceof PlayerStrategy))
+                throw new IllegalArgumentException("The player " + game.getPlayer(p).getName() + " is not a bot");
+
+            strategies[p] = (PlayerStrategy<? super G>) game.getPlayer(p);
+        }
+
+        return new GameRunner<>(game, List.of(strategies));
+    }
+
+    // Getters
+
+    public G getGame() {
+        return game;
+    }
+
+    /**
+     * Returns {@code true} if the last tile of the deck has been played or passed,
+     * the game being scored.
+     *
+     * @return Whether the game is over
+     */
+    public boolean isOver() {
+        return isOver;
+    }
+
+    /**
+     * Returns the number of turns played by the runner, the passes included.
+     *
+     * @return The number of turns
+     */
+    public int getNbTurns() {
+        return nbTurns;
+    }
+
+    public int getNbPasses() {
+        int nbPasses = 0;
+        for (int passes : passesByPlayer) {
+            nbPasses += passes;
+        }
+        return nbPasses;
+    }
+
+    /**
+     * Returns the number of turns passed by the player at the index
+     * {@code player} of the order of the turns.
+     *
+     * @param player The index of the player
+     * @return The number of passes of the player
+     */
+    public int getNbPasses(int player) {
+        return passesByPlayer[player];
+    }
+
+    // Methods
+
+    /**
+     * Plays the game until its end.
+     *
+     * @return The ranking of the players at the end of the game, see
+     *         {@link Game#getRanking()}
+     * @throws TileNotFoundException If there is no tile to place
+     */
+    public Player[] run() throws TileNotFoundException {
+        while (!isOver) {
+            playTurn();
+        }
+
+        return game.getRanking();
+    }
+
+    /**
+     * Plays the turn of the current player. The first tile is drawn if the game
+     * has not started yet. The game ends after the turn of the last tile drawn.
+     *
+     * @return {@code true} if there are turns left to play
+     * @throws TileNotFoundException If there is no tile to place
+     * @throws IllegalStateException If the game is over
+     */
+    public boolean playTurn() throws TileNotFoundException {
+        if (isOver)
+            throw new IllegalStateException("The game is over");
+
+        if (game.getNbRounds() == 0)
+            game.updateGameRound();
+
+        // The game is off once the last tile is drawn, but this tile is still played
+        boolean isLastTurn = !game.isGameOn();
+
+        if (game.generateMoves(moves) == 0) {
+            passesByPlayer[game.currentPlayer]++;
+            game.passMove();
+        } else {
+            game.makeMove(strategies[game.currentPlayer].chooseMove(game, moves));
+        }
+        nbTurns++;
+
+        isOver = isLastTurn;
+
+        return !isOver;
+    }
+}
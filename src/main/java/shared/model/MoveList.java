@@ -0,0 +1,160 @@
+package shared.model;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * A reusable buffer of moves, filled by {@link Game#generateMoves(MoveList)}.
+ *
+ * <p>
+ * A move is packed in a {@code long}: the x coordinate of the cell from the bit
+ * 36, its y coordinate from the bit 8 (28 signed bits each), the number of
+ * rotations to the right of the tile to place in the bits 5 and 6, and the spot
+ * of the pawn plus one in the 5 lower bits, 0 meaning no pawn. The buffer only
+ * grows, so a bot which keeps its list does not allocate once it is large
+ * enough.
+ * </p>
+ */
+public class MoveList {
+
+    public static final int NO_PAWN = -1;
+
+    private static final int COORDINATE_BITS = 28;
+    private static final int X_SHIFT = 36;
+    private static final int Y_SHIFT = 8;
+    private static final int ROTATION_SHIFT = 5;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+    private static final int PAWN_MASK = 0b11111;
+
+    // Attributes
+
+    private long[] moves;
+    private int size = 0;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        moves = new long[Math.max(capacity, 1)];
+    }
+
+    // Getters
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the move at the index {@code index} of the list.
+     *
+     * @param index The index, between 0 and {@code size() - 1}
+     * @return The packed move
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+
+        return moves[index];
+    }
+
+    /**
+     * Returns the moves of the list as a stream. The stream reads the buffer, so
+     * it must be consumed before the list is filled again.
+     *
+     * @return The stream of the packed moves
+     */
+    public LongStream stream() {
+        return Arrays.stream(moves, 0, size);
+    }
+
+    // Methods
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds the move placing the tile at ({@code x}, {@code y}) after
+     * {@code rotation} rotations to the right, with a pawn on the spot
+     * {@code pawnSpot}.
+     *
+     * @param x        X position of the tile
+     * @param y        Y position of the tile
+     * @param rotation Number of rotations to the right, between 0 and 3
+     * @param pawnSpot The spot of the pawn, {@link #NO_PAWN} for no pawn
+     */
+    public void add(int x, int y, int rotation, int pawnSpot) {
+        add(pack(x, y, rotation, pawnSpot));
+    }
+
+    public void add(long move) {
+        if (size == moves.length)
+            moves = Arrays.copyOf(moves, size * 2);
+
+        moves[size++] = move;
+    }
+
+    /**
+     * Packs a move in a {@code long}.
+     *
+     * @param x        X position of the tile
+     * @param y        Y position of the tile
+     * @param rotation Number of rotations to the right, between 0 and 3
+     * @param pawnSpot The spot of the pawn, between 0 and 30, {@link #NO_PAWN} for
+     *                 no pawn
+     * @return The packed move
+     * @throws IllegalArgumentException If a value does not fit in its bits
+     */
+    public static long pack(int x, int y, int rotation, int pawnSpot) {
+        if (x != (x << (32 - COORDINATE_BITS)) >> (32 - COORDINATE_BITS)
+                || y != (y << (32 - COORDINATE_BITS)) >> (32 - COORDINATE_BITS))
+            throw new IllegalArgumentException("The position is too far from the first tile");
+
+        if (rotation < 0 || rotation > 3)
+            throw new IllegalArgumentException("The rotation must be between 0 and 3");
+
+        if (pawnSpot < NO_PAWN || pawnSpot >= PAWN_MASK)
+            throw new IllegalArgumentException("Invalid pawn spot");
+
+        return ((long) x << X_SHIFT) | ((y & COORDINATE_MASK) << Y_SHIFT) | (rotation << ROTATION_SHIFT)
+                | (pawnSpot + 1);
+    }
+
+    public static int getX(long move) {
+        return (int) (move >> X_SHIFT);
+    }
+
+    public static int getY(long move) {
+        return (int) ((move << (64 - Y_SHIFT - COORDINATE_BITS)) >> (64 - COORDINATE_BITS));
+    }
+
+    public static int getRotation(long move) {
+        return (int) (move >>> ROTATION_SHIFT) & 0b11;
+    }
+
+    /**
+     * Returns the spot of the pawn of a packed move.
+     *
+     * @param move The packed move
+     * @return The spot, {@link #NO_PAWN} if the move does not put a pawn
+     */
+    public static int getPawnSpot(long move) {
+        return ((int) move & PAWN_MASK) - 1;
+    }
+
+    /**
+     * Returns a key of the cell of a packed move: two moves have the same key if
+     * and only if they place the tile in the same cell.
+     *
+     * @param move The packed move
+     * @return The key of the cell
+     */
+    public static long getCell(long move) {
+        return move >> Y_SHIFT;
+    }
+}
@@ -1,5 +1,7 @@
 package shared.model;
 
+import java.util.random.RandomGenerator;
+
 public class Player {
     protected int score = 0;
     protected String name;
@@ -20,6 +22,16 @@ public class Player {
             "Thorin", "Thorondor", "Thrain", "Tilion", "Tom Bombadil", "Treebeard", "Tulkas", "Tuor", "Turgon", "Turin",
             "Uinen", "Ulmo", "Ungoliant", "Vaire", "Vana", "Varda", "Yavanna" };
 
+    /**
+     * Returns a random name for a bot.
+     * 
+     * @param random The generator to use
+     * @return A random name
+     */
+    protected static String randomBotName(RandomGenerator random) {
+        return botNames[random.nextInt(botNames.length)];
+    }
+
     // Constructor
     public Player() {
     }
@@ -2,7 +2,6 @@ package shared.model;
 
 import java.util.List;
 
-import domino.model.SideDomino;
 import exceptions.UnableToTurnException;
 import interfaces.Placeable;
 import utils.Pair;
@@ -38,27 +37,6 @@ public abstract class Tile<T extends Side> implements Placeable<T> {
 
     // Setters
 
-    /**
-     * Sets the side of the object in the direction {@code direction} to
-     * {@code side}.
-     * 
-     * @param side      the side to set
-     * @param direction the direction of the side to set
-     */
-    public void setSide(T side, Direction direction) {
-        this.sides[Placeable.directionToInt(direction)] = side;
-    }
-
-    /**
-     * The sides of the tile are replaced by {@code tab}.
-     * 
-     * @param tab the new sides of the tile
-     */
-    public void setAllSides(T[] tab) {
-        validSides(tab);
-        this.sides = tab;
-    }
-
     public void setPlaced(boolean isPlaced) {
         this.isPlaced = isPlaced;
     }
@@ -89,12 +67,6 @@ public abstract class Tile<T extends Side> implements Placeable<T> {
             }
             // First element of array will be put at the end of the array
             sides[j] = first;
-
-            if (first instanceof SideDomino) {
-                // Reverse the order of the sides
-                ((SideDomino) sides[1]).reverseOrder();
-                ((SideDomino) sides[3]).reverseOrder();
-            }
         }
     }
 
@@ -123,12 +95,6 @@ public abstract class Tile<T extends Side> implements Placeable<T> {
 
             // Last element of array will be put at the start of the array.
             sides[0] = last;
-
-            if (last instanceof SideDomino) {
-                // Reverse the order of the sides
-                ((SideDomino) sides[0]).reverseOrder();
-                ((SideDomino) sides[2]).reverseOrder();
-            }
         }
     }
 
@@ -147,6 +113,21 @@ public abstract class Tile<T extends Side> implements Placeable<T> {
         return false;
     }
 
+    @Override
+    public boolean canBePlacedWithRotation(Placeable<T>[] neighbors) {
+        for (int z = 0; z < 4; z++) {
+            if (canBePlaced(neighbors))
+                return true;
+
+            try {
+                turnRight(1);
+            } catch (UnableToTurnException e) {
+                //
+            }
+        }
+        return false;
+    }
+
     public abstract boolean validSides(T[] tab);
 
     /**
@@ -0,0 +1,422 @@
+package shared.model;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import exceptions.TileNotFoundException;
+import interfaces.PlayerStrategy;
+
+/**
+ * Plays many games between bots to compare them.
+ *
+ * <p>
+ * Each entrant of the tournament creates a new bot for each game it plays. A game
+ * is played for every seating of the entrants, an entrant playing against itself
+ * included, and for every seed of the tournament, so an entrant plays the same
+ * decks from every seat. Every random decision of a game, the names of the bots
+ * included, is derived from its seed, so the result of a game does not depend on
+ * the thread which plays it. The games are split between the threads of a
+ * work-stealing pool, and the result of each game goes into counters which are
+ * never locked, so the threads do not wait for each other whatever their
+ * number.
+ * </p>
+ *
+ * @param <P> The type of the bots, which play with their own strategy
+ * @param <G> The type of the games
+ */
+public class Tournament<P extends Player & PlayerStrategy<? super G>, G extends Game<?, ?>> {
+
+    public static final int SCORE_BUCKET_WIDTH = 10; // Scores in each bucket of the distributions
+    public static final int NB_SCORE_BUCKETS = 64; // The last bucket holds the scores above
+
+    // Attributes
+
+    private final List<Entrant<P>> entrants = new ArrayList<>();
+    private final BiFunction<List<P>, Long, G> gameFactory; // New game for the bots and a seed
+    private final int nbSeats;
+    private final long[] seeds; // Seed of each deck
+
+    private final ForkJoinPool pool;
+
+    // Statistics of all the games
+    private final LongAdder nbGames = new LongAdder();
+    private final LongAdder nbTurns = new LongAdder();
+    private final LongAdder nbPasses = new LongAdder();
+    private final LongAccumulator minTurns = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxTurns = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    // Statistics of the last run
+    private long lastRunGames = 0;
+    private long lastDuration = 0; // Nanoseconds
+
+    /**
+     * Creates a tournament of games of {@code nbSeats} players.
+     *
+     * @param gameFactory Creates the game of the given bots, in the order of the
+     *                    turns, with the given seed
+     * @param nbSeats     The number of players of a game
+     * @param seeds       The seed of each deck to play
+     * @param pool        The pool of the games
+     * @throws IllegalArgumentException If there are no seats or no seeds
+     */
+    public Tournament(BiFunction<List<P>, Long, G> gameFactory, int nbSeats, long[] seeds, ForkJoinPool pool) {
+        if (nbSeats <= 0)
+            throw new IllegalArgumentException("A game must have at least one player");
+
+        if (seeds.length == 0)
+            throw new IllegalArgumentException("There must be at least one seed");
+
+        this.gameFactory = gameFactory;
+        this.nbSeats = nbSeats;
+        this.seeds = seeds.clone();
+        this.pool = pool;
+    }
+
+    // Getters
+
+    public List<Entrant<P>> getEntrants() {
+        return List.copyOf(entrants);
+    }
+
+    /**
+     * Returns the number of games of a run: one per seating of the entrants and
+     * per seed.
+     *
+     * @return The number of games
+     */
+    public long getNbScheduledGames() {
+        long nbSeatings = 1;
+        for (int s = 0; s < nbSeats; s++) {
+            nbSeatings = Math.multiplyExact(nbSeatings, entrants.size());
+        }
+
+        return Math.multiplyExact(nbSeatings, seeds.length);
+    }
+
+    public long getNbGames() {
+        return nbGames.sum();
+    }
+
+    public long getNbTurns() {
+        return nbTurns.sum();
+    }
+
+    /**
+     * Returns the number of turns of the shortest game.
+     *
+     * @return The number of turns, 0 if no game was played
+     */
+    public long getMinTurns() {
+        return getNbGames() == 0 ? 0 : minTurns.get();
+    }
+
+    /**
+     * Returns the number of turns of the longest game.
+     *
+     * @return The number of turns, 0 if no game was played
+     */
+    public long getMaxTurns() {
+        return getNbGames() == 0 ? 0 : maxTurns.get();
+    }
+
+    public double getAverageTurns() {
+        long games = getNbGames();
+        return games == 0 ? 0 : (double) getNbTurns() / games;
+    }
+
+    /**
+     * Returns the part of the turns which were passed.
+     *
+     * @return The pass rate, between 0 and 1
+     */
+    public double getPassRate() {
+        long turns = getNbTurns();
+        return turns == 0 ? 0 : (double) nbPasses.sum() / turns;
+    }
+
+    /**
+     * Returns the number of games per second of the last run.
+     *
+     * @return The number of games per second, 0 if there was no run
+     */
+    public double getGamesPerSecond() {
+        return lastDuration == 0 ? 0 : lastRunGames * 1e9 / lastDuration;
+    }
+
+    // Methods
+
+    /**
+     * Adds an entrant to the tournament.
+     *
+     * @param name    The name of the entrant in the statistics
+     * @param factory Creates a new bot of the entrant
+     * @return The entrant, which holds its statistics
+     */
+    public Entrant<P> addEntrant(String name, Supplier<P> factory) {
+        Entrant<P> entrant = new Entrant<>(name, factory);
+        entrants.add(entrant);
+        return entrant;
+    }
+
+    /**
+     * Plays every game of the tournament. The statistics are added to the ones of
+     * the previous runs.
+     */
+    public void run() {
+        run(null, 0);
+    }
+
+    /**
+     * Plays every game of the tournament and prints the progress on {@code out}
+     * every {@code intervalMillis} milliseconds while the games are played.
+     *
+     * @param out            The stream of the progress, {@code null} for none
+     * @param intervalMillis The interval between two prints
+     * @throws IllegalArgumentException If the interval is not positive
+     * @throws IllegalStateException    If there is no entrant or a game failed
+     */
+    public void run(PrintStream out, long intervalMillis) {
+        if (entrants.isEmpty())
+            throw new IllegalStateException("There is no entrant");
+
+        if (out != null && intervalMillis <= 0)
+            throw new IllegalArgumentException("The interval must be positive");
+
+        long nbScheduled = getNbScheduledGames();
+        long gamesBefore = getNbGames();
+        long start = System.nanoTime();
+
+        ForkJoinTask<Void> task = pool.submit(new GamesTask(0, nbScheduled));
+
+        try {
+            boolean isDone = false;
+            while (!isDone) {
+                try {
+                    if (out == null)
+                        task.get();
+                    else
+                        task.get(intervalMillis, TimeUnit.MILLISECONDS);
+                    isDone = true;
+                } catch (TimeoutException e) {
+                    long played = getNbGames() - gamesBefore;
+                    double elapsed = (System.nanoTime() - start) / 1e9;
+                    out.printf("%d/%d games, %.1f games/s%n", played, nbScheduled, played / elapsed);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed", e.getCause());
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The tournament was interrupted", e);
+        }
+
+        lastDuration = System.nanoTime() - start;
+        lastRunGames = getNbGames() - gamesBefore;
+    }
+
+    /**
+     * Plays the game at the index {@code index} of the schedule: the index gives
+     * the entrant of each seat, then the seed.
+     */
+    private void playGame(long index) {
+        long seating = index / seeds.length;
+        long gameSeed = seeds[(int) (index % seeds.length)];
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Entrant<P>[] seated = new Entrant[nbSeats];
+        List<P> bots = new ArrayList<>(nbSeats);
+
+        for (int s = 0; s < nbSeats; s++) {
+            seated[s] = entrants.get((int) (seating % entrants.size()));
+            seating /= entrants.size();
+            bots.add(seated[s].factory.get());
+        }
+
+        G game = gameFactory.apply(bots, gameSeed);
+        GameRunner<G> runner = new GameRunner<>(game, bots);
+
+        try {
+            runner.run();
+        } catch (TileNotFoundException e) {
+            throw new IllegalStateException("The game of the seed " + gameSeed + " has no tile to place", e);
+        }
+
+        int bestScore = Integer.MIN_VALUE;
+        int nbBest = 0;
+        for (int p = 0; p < nbSeats; p++) {
+            int score = game.getPlayer(p).getScore();
+            if (score > bestScore) {
+                bestScore = score;
+                nbBest = 1;
+            } else if (score == bestScore) {
+                nbBest++;
+            }
+        }
+
+        for (int p = 0; p < nbSeats; p++) {
+            int score = game.getPlayer(p).getScore();
+            seated[p].add(score, score == bestScore, nbBest > 1, runner.getNbPasses(p));
+        }
+
+        nbTurns.add(runner.getNbTurns());
+        nbPasses.add(runner.getNbPasses());
+        minTurns.accumulate(runner.getNbTurns());
+        maxTurns.accumulate(runner.getNbTurns());
+        nbGames.increment();
+    }
+
+    /**
+     * Plays the games of the schedule from {@code from} included to {@code to}
+     * excluded, splitting the range in two until it is one game.
+     */
+    private final class GamesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        private GamesTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                playGame(from);
+                return;
+            }
+
+            long middle = (from + to) >>> 1;
+            invokeAll(new GamesTask(from, middle), new GamesTask(middle, to));
+        }
+    }
+
+    /**
+     * An entrant of the tournament, with the statistics of its bots.
+     */
+    public static final class Entrant<P> {
+
+        private final String name;
+        private final Supplier<P> factory;
+
+        private final LongAdder nbGames = new LongAdder();
+        private final LongAdder nbWins = new LongAdder(); // Games won alone
+        private final LongAdder nbTies = new LongAdder(); // Games won with other players
+        private final LongAdder scoreSum = new LongAdder();
+        private final LongAdder scoreSquareSum = new LongAdder();
+        private final LongAdder nbPasses = new LongAdder();
+        private final AtomicLongArray scoreBuckets = new AtomicLongArray(NB_SCORE_BUCKETS);
+
+        private Entrant(String name, Supplier<P> factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        // Getters
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNbGames() {
+            return nbGames.sum();
+        }
+
+        /**
+         * Returns the part of the games won alone.
+         *
+         * @return The win rate, between 0 and 1
+         */
+        public double getWinRate() {
+            long games = getNbGames();
+            return games == 0 ? 0 : (double) nbWins.sum() / games;
+        }
+
+        /**
+         * Returns the part of the games won with other players.
+         *
+         * @return The tie rate, between 0 and 1
+         */
+        public double getTieRate() {
+            long games = getNbGames();
+            return games == 0 ? 0 : (double) nbTies.sum() / games;
+        }
+
+        public double getAverageScore() {
+            long games = getNbGames();
+            return games == 0 ? 0 : (double) scoreSum.sum() / games;
+        }
+
+        public double getScoreStandardDeviation() {
+            long games = getNbGames();
+            if (games == 0)
+                return 0;
+
+            double average = getAverageScore();
+            return Math.sqrt(Math.max(0, (double) scoreSquareSum.sum() / games - average * average));
+        }
+
+        /**
+         * Returns the number of games with a score in the bucket {@code bucket}:
+         * from {@code bucket * SCORE_BUCKET_WIDTH} included to
+         * {@code (bucket + 1) * SCORE_BUCKET_WIDTH} excluded. The first bucket holds
+         * the negative scores too and the last one the scores above it.
+         *
+         * @param bucket The index of the bucket
+         * @return The number of games
+         */
+        public long getNbScoresInBucket(int bucket) {
+            return scoreBuckets.get(bucket);
+        }
+
+        /**
+         * Returns the number of passes of the bots of the entrant per game.
+         *
+         * @return The average number of passes
+         */
+        public double getAveragePasses() {
+            long games = getNbGames();
+            return games == 0 ? 0 : (double) nbPasses.sum() / games;
+        }
+
+        // Methods
+
+        private void add(int score, boolean isBest, boolean isShared, int passes) {
+            nbGames.increment();
+            if (isBest) {
+                if (isShared)
+                    nbTies.increment();
+                else
+                    nbWins.increment();
+            }
+
+            scoreSum.add(score);
+            scoreSquareSum.add((long) score * score);
+            scoreBuckets.incrementAndGet(Math.min(Math.max(score, 0) / SCORE_BUCKET_WIDTH, NB_SCORE_BUCKETS - 1));
+            nbPasses.add(passes);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%s: %d games, %.1f%% wins, %.1f%% ties, score %.1f (standard deviation %.1f), %.2f passes per game",
+                    name, getNbGames(), 100 * getWinRate(), 100 * getTieRate(), getAverageScore(),
+                    getScoreStandardDeviation(), getAveragePasses());
+        }
+    }
+}
@@ -17,7 +17,9 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 
 import interfaces.Placeable.Direction;
+import interfaces.PlayerStrategy;
 import shared.model.Game;
+import shared.model.MoveList;
 import shared.model.Side;
 import shared.model.Tile;
 import utils.GraphicalImageSetter;
@@ -42,6 +44,10 @@ public abstract class GamePanel<S extends Side, T extends Tile<S>> extends JPane
 
     protected boolean wantedToPass = false;
 
+    // Plays the turns of the bots. The inputs which change the game are ignored
+    // while a bot computes its move
+    protected final TurnScheduler scheduler = new TurnScheduler();
+
     protected GridBagConstraints constraints = new GridBagConstraints();
 
     /**
@@ -205,6 +211,9 @@ public abstract class GamePanel<S extends Side, T extends Tile<S>> extends JPane
      * press the pass button twice.
      */
     protected void pass() {
+        if (scheduler.isBusy())
+            return;
+
         if (wantedToPass || gameModel.findPossiblePlacements().isEmpty()) {
             wantedToPass = false;
             updateGameRound();
@@ -220,6 +229,9 @@ public abstract class GamePanel<S extends Side, T extends Tile<S>> extends JPane
      * The current player surrenders.
      */
     protected void surrender() {
+        if (scheduler.isBusy())
+            return;
+
         gameModel.surrender(gameModel.getCurrentPlayer());
         String message = "Player " + gameModel.getCurrentPlayer().getName() + " has surrendered.";
         JOptionPane.showMessageDialog(this, message, "", JOptionPane.INFORMATION_MESSAGE);
@@ -235,6 +247,9 @@ public abstract class GamePanel<S extends Side, T extends Tile<S>> extends JPane
      * 
      */
     protected void moveTo(Direction direction) {
+        if (scheduler.isBusy())
+            return;
+
         try {
             gameModel.move(direction);
             updateView();
@@ -250,6 +265,9 @@ public abstract class GamePanel<S extends Side, T extends Tile<S>> extends JPane
      *                  otherwise
      */
     protected void turn(boolean clockwise) {
+        if (scheduler.isBusy())
+            return;
+
         try {
             gameModel.turn(clockwise, 1);
             updateView();
@@ -260,6 +278,20 @@ public abstract class GamePanel<S extends Side, T extends Tile<S>> extends JPane
 
     protected abstract void updateGameRound();
 
+    /**
+     * Returns the move chosen by {@code bot} for the current turn of {@code game}.
+     * It only reads the game, so it can be called by the thread of the scheduler.
+     * 
+     * @param game The game
+     * @param bot  The bot whose turn it is
+     * @return The packed move, {@code null} if the tile cannot be placed
+     */
+    protected static <G extends Game<?, ?>> Long chooseBotMove(G game, PlayerStrategy<? super G> bot) {
+        MoveList moves = new MoveList();
+
+        return game.generateMoves(moves) == 0 ? null : bot.chooseMove(game, moves);
+    }
+
     protected abstract void updateView();
 
     /**
@@ -279,6 +311,9 @@ public abstract class GamePanel<S extends Side, T extends Tile<S>> extends JPane
                 tiles[x + y * 5].addMouseListener(new MouseAdapter() {
                     @Override
                     public void mouseClicked(MouseEvent e) {
+                        if (scheduler.isBusy())
+                            return;
+
                         try {
                             gameModel.place(String.valueOf(x + 1), String.valueOf(y + 1), gameModel.getCurrentPlayer());
                             updateGameRound();
@@ -20,6 +20,7 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.event.MouseEvent;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The StartMenu class is the panel that contains the start menu.
@@ -73,7 +74,8 @@ public class StartMenu extends JPanel {
         add(rulesButton, c);
 
         // Domino Button
-        domino = new TileDominoPanel(new TileDomino());
+        // The tile is only decorative, so it is drawn with a fresh generator
+        domino = new TileDominoPanel(new TileDomino(ThreadLocalRandom.current()));
         domino.addMouseListener(new MouseInputAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
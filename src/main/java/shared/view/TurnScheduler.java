@@ -0,0 +1,141 @@
+package shared.view;
+
+import java.awt.EventQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Plays the turns of the bots of a game panel outside of the event dispatch
+ * thread.
+ *
+ * <p>
+ * The move of a bot is computed by a thread of its own, then the result is
+ * posted back to the event dispatch thread, which plays it and schedules the
+ * next turn. So the panel is repainted while a bot thinks, and a game between
+ * bots is a flat sequence of events instead of calls nested once per turn. The
+ * turns are at least {@link #getTurnDelay()} milliseconds apart, so that they
+ * can be followed on the screen.
+ * </p>
+ *
+ * <p>
+ * Every method must be called on the event dispatch thread. While a turn is
+ * scheduled, the bot reads the game from its thread: the panel must not change
+ * the game until the result is given back, see {@link #isBusy()}.
+ * </p>
+ */
+public class TurnScheduler {
+
+    public static final long DEFAULT_TURN_DELAY = 500; // Milliseconds between two turns of bots
+
+    // Attributes
+
+    private final ScheduledExecutorService executor;
+    private long turnDelay = DEFAULT_TURN_DELAY;
+
+    private Future<?> pending; // The turn being computed, null if there is none
+    private int generation = 0; // Incremented when a turn is cancelled, so its result is dropped
+
+    public TurnScheduler() {
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "Bot turns");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Getters
+
+    public long getTurnDelay() {
+        return turnDelay;
+    }
+
+    /**
+     * Returns {@code true} if a turn is computed and its result has not been
+     * given back yet.
+     *
+     * @return Whether a turn is scheduled
+     */
+    public boolean isBusy() {
+        return pending != null;
+    }
+
+    // Setters
+
+    /**
+     * Sets the delay before the move of a bot is computed.
+     *
+     * @param millis The delay in milliseconds
+     * @throws IllegalArgumentException If the delay is negative
+     */
+    public void setTurnDelay(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("The delay must be positive");
+
+        turnDelay = millis;
+    }
+
+    // Methods
+
+    /**
+     * Computes {@code turn} on the thread of the scheduler, then gives its result
+     * to {@code then} on the event dispatch thread. If {@code turn} fails, the
+     * result is {@code null}.
+     *
+     * @param turn The computation of the move of a bot, which must not change the
+     *             game
+     * @param then The action which plays the move
+     * @throws IllegalStateException If a turn is already scheduled or if the
+     *                               scheduler is shut down
+     */
+    public <R> void schedule(Callable<R> turn, Consumer<R> then) {
+        if (isBusy())
+            throw new IllegalStateException("A turn is already scheduled");
+
+        if (executor.isShutdown())
+            throw new IllegalStateException("The scheduler is shut down");
+
+        int scheduled = generation;
+
+        pending = executor.schedule(() -> {
+            R result;
+            try {
+                result = turn.call();
+            } catch (Exception e) {
+                result = null;
+            }
+
+            R move = result;
+            EventQueue.invokeLater(() -> {
+                if (scheduled != generation)
+                    return;
+
+                pending = null;
+                then.accept(move);
+            });
+        }, turnDelay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the turn being computed, if any: its result will not be given back.
+     */
+    public void cancel() {
+        generation++;
+
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    /**
+     * Cancels the turn being computed and stops the thread of the scheduler.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
@@ -1,45 +1,166 @@
 package utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 import interfaces.Placeable.Direction;
 
 /**
  * This class represents a generic expandable 2D array.
+ *
+ * <p>
+ * The coordinates are signed and anchored on the first element added: adding
+ * an element next to the bounds expands the array without moving the elements
+ * already inside, so a position stays valid for the whole life of the array.
+ * </p>
+ *
+ * <p>
+ * The cells are stored in square chunks of {@code CHUNK_SIZE * CHUNK_SIZE}
+ * cells, addressed by their chunk coordinates in a hash map. Expanding the
+ * array in any direction only moves its bounds, and the memory used follows
+ * the occupied chunks instead of the bounding rectangle.
+ * </p>
+ *
+ * <p>
+ * Each {@code add} is recorded, so the last ones can be undone in the reverse
+ * order with {@link #undoAdd()}, the bounds, the key index and the frontier
+ * included.
+ * </p>
  */
 public class Expandable2DArray<T> {
 
-    private ArrayList<ArrayList<T>> array; // The array
+    private static final int CHUNK_BITS = 4; // log2 of the side of a chunk
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS; // Side of a chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final long NO_POSITION = Long.MIN_VALUE; // Empty slot of the key index
+
+    // Flags of the record of an add, the 4 lower bits being the directions in which
+    // the array was expanded
+    private static final int ADDED_FIRST = 1 << 4; // The array was empty
+    private static final int ADDED_KEY = 1 << 5; // The key was indexed
+    private static final int OPENED_SHIFT = 6; // Number of cells opened in the frontier
+
+    private final Map<Long, Object[]> chunks = new HashMap<>(); // The chunks of the array
+
+    // Bounds of the array (inclusive)
+    private int minX;
+    private int minY;
+    private int maxX = -1;
+    private int maxY = -1;
+
+    // Last chunk accessed, most accesses are close to each other
+    private long lastChunkKey;
+    private Object[] lastChunk;
+
+    // Gives the key of an element, the elements are indexed by their key if it is
+    // not null
+    private final ToIntFunction<? super T> keyExtractor;
+
+    // Packed position of the first element added with each key
+    private long[] positionsByKey = new long[0];
+
+    // Packed positions of the empty cells next to at least one element
+    private final IndexedLongSet frontier = new IndexedLongSet();
+
+    // Record of each add, to undo it: its position, its flags and the index its
+    // cell had in the frontier
+    private long[] addedPositions = new long[16];
+    private int[] addedFlags = new int[16];
+    private int[] addedFrontierIndexes = new int[16];
+    private int nbAdds = 0;
 
     // Constructors
 
     public Expandable2DArray() {
-        array = new ArrayList<>();
+        keyExtractor = null;
     }
 
     public Expandable2DArray(T firstElement) {
-        array = new ArrayList<>();
-        array.add(new ArrayList<>());
-        array.get(0).add(firstElement);
+        this(firstElement, null);
+    }
+
+    /**
+     * Creates an empty array which indexes its elements by the non-negative key
+     * given by {@code keyExtractor}, see {@link #findIndex(int)}.
+     *
+     * @param keyExtractor Function giving the key of an element
+     */
+    public Expandable2DArray(ToIntFunction<? super T> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Creates an array containing {@code firstElement} at 0,0 which indexes its
+     * elements by the non-negative key given by {@code keyExtractor}, see
+     * {@link #findIndex(int)}.
+     *
+     * @param firstElement The first element of the array
+     * @param keyExtractor Function giving the key of an element
+     */
+    public Expandable2DArray(T firstElement, ToIntFunction<? super T> keyExtractor) {
+        this(keyExtractor);
+        add(0, 0, firstElement);
     }
 
     // Getters
     public int getHeight() {
-        return array.get(0).size();
+        return maxY - minY + 1;
     }
 
     public int getWidth() {
-        return array.size();
+        return maxX - minX + 1;
+    }
+
+    /**
+     * Returns the smallest x coordinate inside of the array.
+     *
+     * @return The smallest x coordinate inside of the array
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Returns the smallest y coordinate inside of the array.
+     *
+     * @return The smallest y coordinate inside of the array
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Returns the biggest x coordinate inside of the array.
+     *
+     * @return The biggest x coordinate inside of the array
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Returns the biggest y coordinate inside of the array.
+     *
+     * @return The biggest y coordinate inside of the array
+     */
+    public int getMaxY() {
+        return maxY;
     }
 
     public T get(int x, int y) {
-        if (x < 0 || y < 0 || x > array.size() || y > array.get(0).size())
+        if (isOutOfBounds(x, y))
             throw new IndexOutOfBoundsException();
 
-        return array.get(x).get(y);
+        return getCell(x, y);
     }
 
     public T get(Pair<Integer, Integer> pair) {
@@ -79,18 +200,47 @@ public class Expandable2DArray<T> {
         return neighbors;
     }
 
+    /**
+     * Fills {@code neighbors} with the immediate neighbors of the cell at the given
+     * position, without allocating anything. The slot {@code i} of the buffer
+     * receives the neighbor in the direction {@code i}, following
+     * {@link interfaces.Placeable#directionToInt(Direction)}, or {@code null} if
+     * there is none.
+     *
+     * @param x         The x coordinate of the cell.
+     * @param y         The y coordinate of the cell.
+     * @param neighbors A buffer of at least 4 slots, owned by the caller.
+     * @return A mask of the non-null neighbors, the bit {@code i} being set if
+     *         there is a neighbor in the direction {@code i}.
+     */
+    public int getNeighbors(int x, int y, Object[] neighbors) {
+        neighbors[0] = getCell(x - 1, y);
+        neighbors[1] = getCell(x, y + 1);
+        neighbors[2] = getCell(x + 1, y);
+        neighbors[3] = getCell(x, y - 1);
+
+        int mask = 0;
+        for (int i = 0; i < 4; i++) {
+            if (neighbors[i] != null)
+                mask |= 1 << i;
+        }
+        return mask;
+    }
+
     // Setter
     public void set(int x, int y, T value) {
-        if (x < 0 || y < 0 || x > array.size() || y > array.get(0).size())
+        if (isOutOfBounds(x, y))
             throw new IndexOutOfBoundsException();
 
-        array.get(x).set(y, value);
+        setCell(x, y, value);
     }
 
     // Methods
 
     /**
-     * Adds a new element to the array.
+     * Adds a new element to the array. The array is expanded if the element is
+     * next to its bounds, the coordinates of the elements already inside do not
+     * change.
      * 
      * @param x     The x coordinate of the new element.
      * @param y     The y coordinate of the new element.
@@ -98,144 +248,368 @@ public class Expandable2DArray<T> {
      */
     public void add(int x, int y, T value) {
 
-        if (array.isEmpty()) {
-            array.add(new ArrayList<>());
-            array.get(0).add(value);
+        if (isEmpty()) {
+            minX = maxX = x;
+            minY = maxY = y;
+            setCell(x, y, value);
+            boolean isIndexed = indexKey(x, y, value);
+            int frontierIndex = frontier.removeAndGetIndex(pack(x, y));
+            int nbOpened = openNeighbors(x, y);
+            recordAdd(x, y, ADDED_FIRST | (isIndexed ? ADDED_KEY : 0) | (nbOpened << OPENED_SHIFT), frontierIndex);
             return;
         }
 
-        if (x < -1 || y < -1 || x > array.size() || y > array.get(0).size())
+        if (!isInsideExpandableBounds(x, y))
             throw new IndexOutOfBoundsException();
 
-        if (x == array.size()) {
+        if (getCell(x, y) != null)
+            throw new IllegalArgumentException("The cell is already occupied");
+
+        // The bit d is set if the array is expanded in the direction d
+        int expanded = 0;
+
+        if (x == maxX + 1) {
             expand(Direction.DOWN);
+            expanded |= 1 << 2;
         }
 
-        if (y == array.get(0).size()) {
+        if (y == maxY + 1) {
             expand(Direction.RIGHT);
+            expanded |= 1 << 1;
         }
 
-        if (x == -1) {
+        if (x == minX - 1) {
             expand(Direction.UP);
-            x = 0;
+            expanded |= 1;
         }
 
-        if (y == -1) {
+        if (y == minY - 1) {
             expand(Direction.LEFT);
-            y = 0;
+            expanded |= 1 << 3;
         }
 
-        if (array.get(x).get(y) != null)
-            throw new IllegalArgumentException("The cell is already occupied");
+        set(x, y, value);
+        boolean isIndexed = indexKey(x, y, value);
+
+        // The cell is not empty anymore and its empty neighbors are now next to an
+        // element
+        int frontierIndex = frontier.removeAndGetIndex(pack(x, y));
+        int nbOpened = openNeighbors(x, y);
+
+        recordAdd(x, y, expanded | (isIndexed ? ADDED_KEY : 0) | (nbOpened << OPENED_SHIFT), frontierIndex);
+    }
+
+    /**
+     * Adds the empty neighbors of {@code x,y} to the frontier.
+     *
+     * @return The number of cells added to the frontier
+     */
+    private int openNeighbors(int x, int y) {
+        int nbOpened = 0;
+
+        if (openCell(x - 1, y))
+            nbOpened++;
+        if (openCell(x + 1, y))
+            nbOpened++;
+        if (openCell(x, y - 1))
+            nbOpened++;
+        if (openCell(x, y + 1))
+            nbOpened++;
+
+        return nbOpened;
+    }
+
+    private boolean openCell(int x, int y) {
+        return getCell(x, y) == null && frontier.add(pack(x, y));
+    }
+
+    private void recordAdd(int x, int y, int flags, int frontierIndex) {
+        if (nbAdds == addedPositions.length) {
+            addedPositions = Arrays.copyOf(addedPositions, nbAdds * 2);
+            addedFlags = Arrays.copyOf(addedFlags, nbAdds * 2);
+            addedFrontierIndexes = Arrays.copyOf(addedFrontierIndexes, nbAdds * 2);
+        }
+
+        addedPositions[nbAdds] = pack(x, y);
+        addedFlags[nbAdds] = flags;
+        addedFrontierIndexes[nbAdds] = frontierIndex;
+        nbAdds++;
+    }
+
+    /**
+     * Undoes the last {@link #add(int, int, Object)} which has not been undone
+     * yet: the element is removed, and the bounds, the key index and the frontier
+     * are the same as before it was added.
+     *
+     * @throws IllegalStateException If there is no add to undo
+     */
+    public void undoAdd() {
+        if (nbAdds == 0)
+            throw new IllegalStateException("There is nothing to undo");
+
+        nbAdds--;
+        long position = addedPositions[nbAdds];
+        int flags = addedFlags[nbAdds];
+        int x = unpackX(position);
+        int y = unpackY(position);
+
+        for (int i = flags >>> OPENED_SHIFT; i > 0; i--) {
+            frontier.removeLast();
+        }
+        if (addedFrontierIndexes[nbAdds] >= 0)
+            frontier.restore(position, addedFrontierIndexes[nbAdds]);
+
+        if ((flags & ADDED_KEY) != 0)
+            positionsByKey[keyExtractor.applyAsInt(getCell(x, y))] = NO_POSITION;
+
+        setCell(x, y, null);
+
+        if ((flags & ADDED_FIRST) != 0) {
+            minX = minY = 0;
+            maxX = maxY = -1;
+            return;
+        }
+
+        if ((flags & 1) != 0)
+            minX++;
+        if ((flags & (1 << 1)) != 0)
+            maxY--;
+        if ((flags & (1 << 2)) != 0)
+            maxX--;
+        if ((flags & (1 << 3)) != 0)
+            minY++;
+    }
+
+    /**
+     * Returns the number of adds which can be undone with {@link #undoAdd()}.
+     *
+     * @return The number of adds recorded
+     */
+    public int getNbAdds() {
+        return nbAdds;
+    }
+
+    /**
+     * Returns the packed position of the element added by the add number
+     * {@code index} which has not been undone, the first element being added by
+     * the add 0.
+     *
+     * @param index The index of the add, between 0 and {@link #getNbAdds()} - 1
+     * @return The packed position of the element
+     */
+    public long getAddedPosition(int index) {
+        if (index < 0 || index >= nbAdds)
+            throw new IndexOutOfBoundsException(index);
+
+        return addedPositions[index];
+    }
+
+    /**
+     * Returns the packed positions (see {@link #pack(int, int)}) of the empty
+     * cells which have at least one non-null neighbor. It is maintained on each
+     * {@code add}, so it does not need to scan the array.
+     *
+     * @return The frontier of the array
+     */
+    public Set<Long> getFrontier() {
+        return Collections.unmodifiableSet(frontier);
+    }
 
-        array.get(x).set(y, value);
+    /**
+     * Returns the number of cells of the frontier, see {@link #getFrontier()}.
+     *
+     * @return The size of the frontier
+     */
+    public int getFrontierSize() {
+        return frontier.size();
+    }
+
+    /**
+     * Returns the packed position of the cell at the index {@code index} of the
+     * frontier, for example to pick a random cell of the frontier in constant
+     * time.
+     *
+     * @param index The index, between 0 and the size of the frontier - 1
+     * @return The packed position of the cell
+     */
+    public long getFrontierCell(int index) {
+        return frontier.get(index);
+    }
+
+    /**
+     * Records the position of {@code value} in the key index if it is the first
+     * element added with its key.
+     *
+     * @param x     The x coordinate of the element
+     * @param y     The y coordinate of the element
+     * @param value The element
+     * @return {@code true} if the position has been recorded
+     */
+    private boolean indexKey(int x, int y, T value) {
+        if (keyExtractor == null || value == null)
+            return false;
+
+        int key = keyExtractor.applyAsInt(value);
+
+        if (key < 0)
+            return false;
+
+        if (key >= positionsByKey.length) {
+            int oldLength = positionsByKey.length;
+            positionsByKey = Arrays.copyOf(positionsByKey, Math.max(key + 1, 2 * oldLength));
+            Arrays.fill(positionsByKey, oldLength, positionsByKey.length, NO_POSITION);
+        }
+
+        if (positionsByKey[key] != NO_POSITION)
+            return false;
+
+        positionsByKey[key] = pack(x, y);
+        return true;
+    }
+
+    /**
+     * Returns the position of the first element added with the key {@code key},
+     * without scanning the array. The array must have been created with a key
+     * extractor.
+     *
+     * @param key The key of the element
+     * @return The position of the element, {@code null} if there is none
+     */
+    public Pair<Integer, Integer> findIndex(int key) {
+        if (keyExtractor == null)
+            throw new IllegalStateException("The elements of the array are not indexed");
+
+        if (key < 0 || key >= positionsByKey.length || positionsByKey[key] == NO_POSITION)
+            return null;
+
+        return new Pair<>(unpackX(positionsByKey[key]), unpackY(positionsByKey[key]));
+    }
+
+    /**
+     * Packs the coordinates {@code x,y} in a {@code long}.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @return The packed coordinates
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    /**
+     * Returns the x coordinate of packed coordinates, see {@link #pack(int, int)}.
+     *
+     * @param position The packed coordinates
+     * @return The x coordinate
+     */
+    public static int unpackX(long position) {
+        return (int) (position >> 32);
+    }
+
+    /**
+     * Returns the y coordinate of packed coordinates, see {@link #pack(int, int)}.
+     *
+     * @param position The packed coordinates
+     * @return The y coordinate
+     */
+    public static int unpackY(long position) {
+        return (int) position;
     }
 
     /**
-     * Expands the size of the array in the given direction.
+     * Expands the size of the array in the given direction. Only the bounds are
+     * moved, the chunks are created when a value is written in them.
      * 
      * @param direction The direction in which the array should be expanded.
      */
     private void expand(Direction direction) {
         switch (direction) {
             case UP:
-                ArrayList<T> newLine = new ArrayList<>();
-                array.get(0).forEach(l -> newLine.add(null));
-                array.add(0, newLine);
+                minX--;
                 break;
 
             case DOWN:
-                newLine = new ArrayList<>();
-                array.get(0).forEach(l -> newLine.add(null));
-                array.add(newLine);
+                maxX++;
                 break;
 
             case LEFT:
-                array.forEach(l -> l.add(0, null));
+                minY--;
                 break;
 
             case RIGHT:
-                array.forEach(l -> l.add(null));
+                maxY++;
                 break;
         }
     }
 
     /**
-     * Returns a sub-array of this array. This sub-array is centered on the point
-     * {@code x,y} and is a rectangle of size {@code size}. If the size is bigger
-     * than the array it will return a sub-array center on the point {@code x,y} and
-     * with the size {@code size} adding {@code null} values to the sides.
-     * 
-     * @param x    X coordinate of the center
-     * @param y    Y coordinate of the center
-     * @param size The size of the sub-array. Must be odd and positive in order to
-     *             have a center.
-     * @return The sub-array
+     * Returns the value stored at {@code ax,ay}, or {@code null} if the chunk
+     * containing it does not exist.
+     *
+     * @param ax The x coordinate
+     * @param ay The y coordinate
+     * @return The value stored at {@code ax,ay}
      */
-    public List<List<T>> getSubArray(int x, int y, int size) {
+    @SuppressWarnings("unchecked")
+    private T getCell(int ax, int ay) {
+        Object[] chunk = getChunk(pack(ax >> CHUNK_BITS, ay >> CHUNK_BITS), false);
 
-        // We find the subarray without scaling
-        List<List<T>> subArray = getSubArrayWithoutScaling(x, y, size);
+        if (chunk == null)
+            return null;
 
-        // This subarray will be returned if its size is the same the input size
-        if (subArray.size() == size && subArray.get(0).size() == size)
-            return subArray;
+        return (T) chunk[cellIndex(ax, ay)];
+    }
 
-        // If the subarray is not the same size as the input size, we need to add
-        // null values to the sides. As we want to keep the center of the subarray
-        // the same, we need to add null values to the sides of the subarray in the
-        // correct order. For this we are going to create a new subarray and add
-        // the values of the old subarray to the new one in the correct order
+    /**
+     * Stores {@code value} at {@code ax,ay}, creating the chunk if needed.
+     *
+     * @param ax    The x coordinate
+     * @param ay    The y coordinate
+     * @param value The value to store
+     */
+    private void setCell(int ax, int ay, T value) {
+        Object[] chunk = getChunk(pack(ax >> CHUNK_BITS, ay >> CHUNK_BITS), value != null);
 
-        List<List<T>> newSubArray = new ArrayList<>();
+        if (chunk != null)
+            chunk[cellIndex(ax, ay)] = value;
+    }
 
-        // Add null values to the new subarray
-        for (int i = 0; i < size; i++) {
-            newSubArray.add(new ArrayList<>());
-            for (int j = 0; j < size; j++) {
-                newSubArray.get(i).add(null);
-            }
-        }
+    /**
+     * Returns the chunk with the key {@code key}.
+     *
+     * @param key    The key of the chunk
+     * @param create If {@code true}, the chunk is created when it does not exist
+     * @return The chunk, or {@code null} if it does not exist and {@code create}
+     *         is {@code false}
+     */
+    private Object[] getChunk(long key, boolean create) {
+        if (lastChunk != null && lastChunkKey == key)
+            return lastChunk;
 
-        // The indexes of the the center of the subarray
-        int centerX = x - Math.max(0, x - size / 2);
-        int centerY = y - Math.max(0, y - size / 2);
+        Object[] chunk = chunks.get(key);
 
-        // The new indexes of the elements of the old subarray in the new subarray are
-        // as follows:
-        // (i - size/2 + centerX, j - size/2 + centerY)
+        if (chunk == null) {
+            if (!create)
+                return null;
 
-        // Add the values of the old subarray to the new one
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                // If the indexes do not correspond to the old subarray, we continue
-                if (i - size / 2 + centerX < 0
-                        || j - size / 2 + centerY < 0
-                        || i - size / 2 + centerX >= subArray.size()
-                        || j - size / 2 + centerY >= subArray.get(0).size()) {
-                    continue;
-                }
-
-                // We add the values of the the old subarray to the new one
-                newSubArray.get(i).set(j, subArray.get(i - size / 2 + centerX).get(j - size / 2 + centerY));
-            }
+            chunk = new Object[CHUNK_SIZE * CHUNK_SIZE];
+            chunks.put(key, chunk);
         }
 
-        return newSubArray;
+        lastChunkKey = key;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    private static int cellIndex(int ax, int ay) {
+        return ((ax & CHUNK_MASK) << CHUNK_BITS) | (ay & CHUNK_MASK);
     }
 
     /**
      * Returns a sub-array of this array. This sub-array is centered on the point
      * {@code x,y} and is a rectangle of size {@code size}. If the size is bigger
-     * than the array it will return the maximum possible sub-array.
-     * 
-     * <p>
-     * 
-     * This method will not scale the sub-array. If the sub-array is bigger than the
-     * array it will return the maximum possible sub-array. It is used as a helper
-     * method for {@link #getSubArray(int, int, int)}, which will scale the
-     * subArray.
-     * <\p>
+     * than the array it will return a sub-array center on the point {@code x,y} and
+     * with the size {@code size} adding {@code null} values to the sides.
      * 
      * @param x    X coordinate of the center
      * @param y    Y coordinate of the center
@@ -243,33 +617,42 @@ public class Expandable2DArray<T> {
      *             have a center.
      * @return The sub-array
      */
-    private List<List<T>> getSubArrayWithoutScaling(int x, int y, int size) {
+    public List<List<T>> getSubArray(int x, int y, int size) {
 
-        if (x < 0 || y < 0 || x > array.size() || y > array.get(0).size())
+        if (isOutOfBounds(x, y))
             throw new IndexOutOfBoundsException();
         if (size < 0)
             throw new IllegalArgumentException("Size must be positive");
         if (size % 2 == 0)
             throw new IllegalArgumentException("Size must be odd");
 
-        int xStart = Math.max(0, x - size / 2);
-        int yStart = Math.max(0, y - size / 2);
-
-        int xEnd = Math.min(getWidth() - 1, x + size / 2);
-        int yEnd = Math.min(getHeight() - 1, y + size / 2);
+        List<List<T>> subArray = new ArrayList<>(size);
 
-        List<List<T>> subArray = new ArrayList<>();
+        // The cells outside of the array are read as null values, so the center of
+        // the sub-array is always the point x,y
+        for (int i = 0; i < size; i++) {
+            List<T> line = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                int cellX = x - size / 2 + i;
+                int cellY = y - size / 2 + j;
 
-        for (int i = xStart; i <= xEnd; i++) {
-            subArray.add(new ArrayList<>());
-            for (int j = yStart; j <= yEnd; j++) {
-                subArray.get(i - xStart).add(array.get(i).get(j));
+                line.add(isOutOfBounds(cellX, cellY) ? null : get(cellX, cellY));
             }
+            subArray.add(line);
         }
 
         return subArray;
     }
 
+    /**
+     * Returns {@code true} if nothing has been added to the array yet.
+     *
+     * @return {@code true} if the array is empty
+     */
+    public boolean isEmpty() {
+        return maxX < minX;
+    }
+
     /**
      * Returns true if the index is out of bounds.
      * 
@@ -278,7 +661,7 @@ public class Expandable2DArray<T> {
      * @return True if the index is out of bounds
      */
     public boolean isOutOfBounds(int x, int y) {
-        return x < 0 || y < 0 || x >= array.size() || y >= array.get(0).size();
+        return x < minX || y < minY || x > maxX || y > maxY;
     }
 
     /**
@@ -301,7 +684,10 @@ public class Expandable2DArray<T> {
      *         array was expanded
      */
     public boolean isInsideExpandableBounds(int x, int y) {
-        return x >= -1 && y >= -1 && x <= array.size() && y <= array.get(0).size();
+        if (isEmpty())
+            return true;
+
+        return x >= minX - 1 && y >= minY - 1 && x <= maxX + 1 && y <= maxY + 1;
     }
 
     /**
@@ -322,7 +708,7 @@ public class Expandable2DArray<T> {
      * @param func The function to apply
      */
     public void forEach(Consumer<T> func) {
-        array.forEach(l -> l.forEach(func));
+        iteri((i, j, t) -> func.accept(t));
     }
 
     /**
@@ -333,13 +719,8 @@ public class Expandable2DArray<T> {
      * @return The first element that satisfies the predicate
      */
     public T find(Predicate<T> predicate) {
-        for (List<T> l : array) {
-            for (T t : l) {
-                if (predicate.test(t))
-                    return t;
-            }
-        }
-        return null;
+        Pair<Integer, Integer> index = findIndex(predicate);
+        return index == null ? null : get(index);
     }
 
     /**
@@ -350,9 +731,9 @@ public class Expandable2DArray<T> {
      * @return The index of the first element that satisfies the predicate
      */
     public Pair<Integer, Integer> findIndex(Predicate<T> predicate) {
-        for (int i = 0; i < array.size(); i++) {
-            for (int j = 0; j < array.get(0).size(); j++) {
-                if (predicate.test(array.get(i).get(j)))
+        for (int i = minX; i <= maxX; i++) {
+            for (int j = minY; j <= maxY; j++) {
+                if (predicate.test(get(i, j)))
                     return new Pair<>(i, j);
             }
         }
@@ -365,8 +746,8 @@ public class Expandable2DArray<T> {
      * @param action The action to apply
      */
     public void iteri(TriConsumer<Integer, Integer, T> action) {
-        for (int i = 0; i < array.size(); i++) {
-            for (int j = 0; j < array.get(i).size(); j++) {
+        for (int i = minX; i <= maxX; i++) {
+            for (int j = minY; j <= maxY; j++) {
                 action.accept(i, j, get(i, j));
             }
         }
@@ -394,13 +775,14 @@ public class Expandable2DArray<T> {
     public String toString() {
         StringBuilder sb = new StringBuilder();
 
-        array.forEach(line -> {
-            line.forEach(element -> {
+        for (int i = minX; i <= maxX; i++) {
+            for (int j = minY; j <= maxY; j++) {
+                T element = get(i, j);
                 sb.append(element == null ? "null" : element.toString());
                 sb.append(" ");
-            });
+            }
             sb.append("\n");
-        });
+        }
 
         return sb.toString();
     }
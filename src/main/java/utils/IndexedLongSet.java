@@ -0,0 +1,171 @@
+package utils;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of {@code long} stored in an array, with the index of each element in a
+ * hash map.
+ *
+ * <p>
+ * An element is added at the end of the array and removed by moving the last
+ * element in its slot, so both are done in constant time. Each of them can be
+ * undone exactly, the order of the array included, with {@link #removeLast()}
+ * and {@link #restore(long, int)}, as long as the changes are undone in the
+ * reverse order.
+ * </p>
+ */
+public class IndexedLongSet extends AbstractSet<Long> {
+
+    private long[] elements = new long[16];
+    private int size = 0;
+
+    private final Map<Long, Integer> indexes = new HashMap<>(); // Index of each element in elements
+
+    // Getters
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the element at the index {@code index} of the array.
+     *
+     * @param index The index, between 0 and {@code size() - 1}
+     * @return The element
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+
+        return elements[index];
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexes.containsKey(o);
+    }
+
+    // Methods
+
+    /**
+     * Adds {@code value} at the end of the array if it is not in the set.
+     *
+     * @param value The value to add
+     * @return {@code true} if the value was added
+     */
+    public boolean add(long value) {
+        if (indexes.containsKey(value))
+            return false;
+
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, size * 2);
+
+        elements[size] = value;
+        indexes.put(value, size);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean add(Long value) {
+        return add(value.longValue());
+    }
+
+    /**
+     * Removes {@code value} from the set, the last element of the array taking its
+     * slot.
+     *
+     * @param value The value to remove
+     * @return The index the value had, to give to {@link #restore(long, int)}, -1
+     *         if it was not in the set
+     */
+    public int removeAndGetIndex(long value) {
+        Integer index = indexes.remove(value);
+
+        if (index == null)
+            return -1;
+
+        size--;
+        if (index != size) {
+            elements[index] = elements[size];
+            indexes.put(elements[index], index);
+        }
+
+        return index;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Long && removeAndGetIndex((Long) o) >= 0;
+    }
+
+    /**
+     * Removes the last element of the array, which undoes the last
+     * {@link #add(long)}.
+     *
+     * @return The removed element
+     * @throws NoSuchElementException If the set is empty
+     */
+    public long removeLast() {
+        if (size == 0)
+            throw new NoSuchElementException();
+
+        long value = elements[--size];
+        indexes.remove(value);
+        return value;
+    }
+
+    /**
+     * Puts {@code value} back at the index {@code index}, which undoes the
+     * {@link #removeAndGetIndex(long)} which returned this index: the element which
+     * took its slot goes back at the end of the array.
+     *
+     * @param value The removed value
+     * @param index The index it had
+     */
+    public void restore(long value, int index) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException(index);
+
+        add(value);
+
+        if (index != size - 1) {
+            elements[size - 1] = elements[index];
+            indexes.put(elements[size - 1], size - 1);
+            elements[index] = value;
+            indexes.put(value, index);
+        }
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        indexes.clear();
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<Long>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Long next() {
+                if (next >= size)
+                    throw new NoSuchElementException();
+
+                return elements[next++];
+            }
+        };
+    }
+}
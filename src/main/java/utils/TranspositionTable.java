@@ -0,0 +1,89 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A table of a fixed size from the hash of a position to a {@code long} of data,
+ * which can be read and written by several threads at once without locks.
+ *
+ * <p>
+ * Each slot is made of two {@code long}: the key XOR the data, then the data.
+ * Two threads writing the same slot at the same time may leave the halves of two
+ * different entries in it, but then the key read back does not match and the
+ * slot is seen as empty, so a read never returns the data of another position.
+ * A new entry always replaces the one of its slot; the callers which want to keep
+ * the deeper results look at the old entry first.
+ * </p>
+ */
+public class TranspositionTable {
+
+    // Attributes
+
+    private final AtomicLongArray slots;
+    private final int mask; // Number of entries minus one
+
+    /**
+     * Creates a table of at least {@code capacity} entries, rounded to a power of
+     * two. An entry takes 16 bytes.
+     *
+     * @param capacity The number of entries
+     * @throws IllegalArgumentException If the capacity is not positive or too large
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 29)
+            throw new IllegalArgumentException("The capacity must be between 1 and 2^29");
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+
+        slots = new AtomicLongArray(2 * size);
+        mask = size - 1;
+    }
+
+    // Getters
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // Methods
+
+    /**
+     * Returns the data stored for the key {@code key}.
+     *
+     * @param key    The hash of the position, which should not be 0
+     * @param absent The value to return if the key is not in the table
+     * @return The data of the key, {@code absent} if it is not in the table
+     */
+    public long get(long key, long absent) {
+        int slot = 2 * ((int) key & mask);
+        long check = slots.getOpaque(slot);
+        long data = slots.getOpaque(slot + 1);
+
+        return (check ^ data) == key ? data : absent;
+    }
+
+    /**
+     * Stores {@code data} for the key {@code key}, in place of the entry of its
+     * slot.
+     *
+     * @param key  The hash of the position
+     * @param data The data to store
+     */
+    public void put(long key, long data) {
+        int slot = 2 * ((int) key & mask);
+        slots.setOpaque(slot, key ^ data);
+        slots.setOpaque(slot + 1, data);
+    }
+
+    /**
+     * Removes every entry of the table. It must not be called while another thread
+     * uses the table.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.setPlain(i, 0);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package utils;
+
+/**
+ * Keys of a Zobrist hash of a game.
+ *
+ * <p>
+ * The hash of a position is the XOR of the keys of its parts: a tile placed on a
+ * cell, the player to move, the score of each player... so it is updated in
+ * constant time when a part is added (XOR of its key) or removed (XOR of the same
+ * key again). The board has no bounds and a tile of Domino has 2^24 values, so
+ * the keys cannot be drawn in a table: they are computed by mixing the value of
+ * the part, which gives the same key to the same part in every game.
+ * </p>
+ */
+public final class Zobrist {
+
+    // Kinds of the keys, so that two parts with the same value have different keys
+    private static final long PLACEMENT = 0x3C6EF372FE94F82BL;
+    private static final long PLAYER = 0xA54FF53A5F1D36F1L;
+    private static final long SCORE = 0x510E527FADE682D1L;
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of a tile placed at ({@code x}, {@code y}).
+     *
+     * @param x       X position of the tile
+     * @param y       Y position of the tile
+     * @param content The content of the tile: its type, its rotation and anything
+     *                else on it which matters to the game
+     * @return The key of the placement
+     */
+    public static long placement(int x, int y, long content) {
+        return mix(Expandable2DArray.pack(x, y) ^ mix(content ^ PLACEMENT));
+    }
+
+    /**
+     * Returns the key of the player to move.
+     *
+     * @param player The index of the player in the order of the turns
+     * @return The key of the player
+     */
+    public static long player(int player) {
+        return key(PLAYER, player);
+    }
+
+    /**
+     * Returns the key of the score of a player.
+     *
+     * @param player The index of the player in the order of the turns
+     * @param score  The score of the player
+     * @return The key of the score
+     */
+    public static long score(int player, int score) {
+        return key(SCORE, ((long) player << 32) | (score & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Returns the key of the value {@code value} of a part of the kind
+     * {@code kind}, for the parts of a position which are not known by this
+     * class. Two kinds must be far apart, like two random numbers.
+     *
+     * @param kind  The kind of the part
+     * @param value The value of the part
+     * @return The key of the part
+     */
+    public static long key(long kind, long value) {
+        return mix(value ^ mix(kind));
+    }
+
+    /**
+     * Mixes the bits of {@code z} with the finalizer of SplitMix64, so that close
+     * values give unrelated keys.
+     *
+     * @param z The value to mix
+     * @return The mixed value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}